@@ -57,7 +57,7 @@ public class AuthController {
         }
 
         User user = userRepository.findByUsername(request.getUsername()).orElseThrow();
-        String token = jwtUtil.generateToken(user.getUsername());
+        String token = jwtUtil.generateToken(user.getUsername(), user.getId(), user.getRole());
 
         return ResponseEntity.ok(new AuthResponse(token, user.getUsername(), user.getRole(), user.getId()));
     }
@@ -0,0 +1,54 @@
+package com.economic.security;
+
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+// ============================================================
+//   Authenticated principal built from JWT claims.
+//   Controllers take it with @AuthenticationPrincipal AuthPrincipal
+//   and use getUserId() instead of looking the user up by username.
+// ============================================================
+@Getter
+public class AuthPrincipal implements UserDetails {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final List<GrantedAuthority> AUTHORITIES = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+
+    private final Long userId;
+    private final String username;
+    private final String role; // INDIVIDUAL or FAMILY
+
+    public AuthPrincipal(Long userId, String username, String role) {
+        this.userId = userId;
+        this.username = username;
+        this.role = role;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return AUTHORITIES;
+    }
+
+    @Override
+    public String getPassword() {
+        return null; // never carried in the token
+    }
+
+    @Override
+    public boolean isAccountNonExpired() { return true; }
+
+    @Override
+    public boolean isAccountNonLocked() { return true; }
+
+    @Override
+    public boolean isCredentialsNonExpired() { return true; }
+
+    @Override
+    public boolean isEnabled() { return true; }
+}
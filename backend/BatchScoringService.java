@@ -0,0 +1,183 @@
+package com.economic.service;
+
+import com.economic.entity.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+// ============================================================
+//   Cohort-wide EFS Batch Scoring
+//   Walks financial_profiles in keyset-ordered chunks, loads the members
+//   of each chunk with one range query, scores the chunk in parallel with
+//   FormulaService.scoreEFS and upserts efs_snapshots with JDBC batches
+//   (one row per household and day, so re-running a day is idempotent).
+//   Only one chunk is held in memory at a time. Each chunk also builds
+//   regional percentile sketches, merged into a full rebuild of the index.
+// ============================================================
+@Service
+public class BatchScoringService {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchScoringService.class);
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private FormulaService formulaService;
+    @Autowired private PercentileIndexService percentileIndex;
+
+    @Value("${batch.efs.chunk-size:5000}")
+    private int chunkSize;
+
+    private static final String PROFILE_CHUNK_SQL =
+        "SELECT user_id, total_savings, total_debt, monthly_expenses, city, state, pincode FROM financial_profiles " +
+        "WHERE user_id > ? ORDER BY user_id LIMIT ?";
+
+    private static final String MEMBER_RANGE_SQL =
+        "SELECT user_id, is_earner, monthly_income, income_stability, skills, skill_ids FROM family_members " +
+        "WHERE user_id BETWEEN ? AND ?";
+
+    // Relies on the (user_id, snapshot_date) unique key on efs_snapshots
+    private static final String UPSERT_SNAPSHOT_SQL =
+        "INSERT INTO efs_snapshots (user_id, snapshot_date, economic_flexibility_score, risk_level, " +
+        "survival_months, total_income, earner_count, dependent_count, created_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+        "ON DUPLICATE KEY UPDATE economic_flexibility_score = VALUES(economic_flexibility_score), " +
+        "risk_level = VALUES(risk_level), survival_months = VALUES(survival_months), " +
+        "total_income = VALUES(total_income), earner_count = VALUES(earner_count), " +
+        "dependent_count = VALUES(dependent_count), created_at = VALUES(created_at)";
+
+    private final SkillIdsConverter skillIds = new SkillIdsConverter();
+
+    private record ScoredRow(long userId, Map<String, Object> score) {}
+
+    @Scheduled(cron = "${batch.efs.cron:0 0 2 * * *}")
+    public void nightlySnapshot() {
+        scoreAll(LocalDate.now());
+    }
+
+    public Map<String, Object> scoreAll(LocalDate snapshotDate) {
+        long start = System.currentTimeMillis();
+        long lastUserId = 0;
+        int scored = 0;
+        int failed = 0;
+        int chunks = 0;
+        Map<String, PercentileIndexService.RegionSketch> sketches = new HashMap<>();
+
+        // Incremental index updates are held back until the rebuilt sketches are swapped in
+        percentileIndex.beginRebuild();
+        boolean rebuilt = false;
+        try {
+            while (true) {
+                // 1. Next chunk of profiles (keyset, no OFFSET)
+                LinkedHashMap<Long, FinancialProfile> profiles = new LinkedHashMap<>();
+                jdbcTemplate.query(PROFILE_CHUNK_SQL, rs -> {
+                    FinancialProfile fp = new FinancialProfile();
+                    fp.setTotalSavings(getDouble(rs, "total_savings"));
+                    fp.setTotalDebt(getDouble(rs, "total_debt"));
+                    fp.setMonthlyExpenses(getDouble(rs, "monthly_expenses"));
+                    fp.setCity(rs.getString("city"));
+                    fp.setState(rs.getString("state"));
+                    fp.setPincode(rs.getString("pincode"));
+                    profiles.put(rs.getLong("user_id"), fp);
+                }, lastUserId, chunkSize);
+                if (profiles.isEmpty()) break;
+
+                long firstId = profiles.keySet().iterator().next();
+                long lastId = firstId;
+                for (Long id : profiles.keySet()) lastId = id;
+
+                // 2. All members of the chunk in one range query
+                Map<Long, List<FamilyMember>> members = new HashMap<>(profiles.size() * 2);
+                jdbcTemplate.query(MEMBER_RANGE_SQL, rs -> {
+                    FamilyMember m = new FamilyMember();
+                    m.setIsEarner(rs.getBoolean("is_earner"));
+                    m.setMonthlyIncome(getDouble(rs, "monthly_income"));
+                    m.setIncomeStability(rs.getString("income_stability"));
+                    m.setSkills(rs.getString("skills"));
+                    m.setSkillIds(skillIds.convertToEntityAttribute(rs.getBytes("skill_ids")));
+                    members.computeIfAbsent(rs.getLong("user_id"), k -> new ArrayList<>()).add(m);
+                }, firstId, lastId);
+
+                // 3. Score in parallel with the same formula as calculateEFS
+                List<ScoredRow> rows = profiles.entrySet().parallelStream()
+                    .map(e -> {
+                        try {
+                            List<FamilyMember> household = members.getOrDefault(e.getKey(), List.of());
+                            return new ScoredRow(e.getKey(), formulaService.scoreEFS(e.getValue(), household));
+                        } catch (RuntimeException ex) {
+                            log.warn("EFS batch scoring failed for user {}", e.getKey(), ex);
+                            return null;
+                        }
+                    })
+                    .filter(Objects::nonNull)
+                    .toList();
+
+                // 4. One JDBC batch per chunk
+                Date date = Date.valueOf(snapshotDate);
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                if (!rows.isEmpty()) jdbcTemplate.batchUpdate(UPSERT_SNAPSHOT_SQL, rows, rows.size(), (ps, row) -> {
+                    Map<String, Object> r = row.score();
+                    ps.setLong(1, row.userId());
+                    ps.setDate(2, date);
+                    ps.setDouble(3, ((Number) r.get("economicFlexibilityScore")).doubleValue());
+                    ps.setString(4, (String) r.get("riskLevel"));
+                    ps.setDouble(5, ((Number) r.get("survivalMonths")).doubleValue());
+                    ps.setDouble(6, ((Number) r.get("totalIncome")).doubleValue());
+                    ps.setInt(7, ((Number) r.get("earnerCount")).intValue());
+                    ps.setInt(8, ((Number) r.get("dependentCount")).intValue());
+                    ps.setTimestamp(9, now);
+                });
+
+                // 5. Regional sketches for this chunk, merged into the running totals
+                Map<String, PercentileIndexService.RegionSketch> chunkSketches = new HashMap<>();
+                List<Object[]> entries = new ArrayList<>(rows.size());
+                for (ScoredRow row : rows) {
+                    double efs = ((Number) row.score().get("economicFlexibilityScore")).doubleValue();
+                    double survival = ((Number) row.score().get("survivalMonths")).doubleValue();
+                    PercentileIndexService.Regions regions = PercentileIndexService.Regions.of(profiles.get(row.userId()));
+                    for (String key : regions.keys()) {
+                        chunkSketches.computeIfAbsent(key, k -> new PercentileIndexService.RegionSketch()).add(efs, survival);
+                    }
+                    entries.add(new Object[]{row.userId(), regions.state(), regions.city(), regions.district(), efs, survival});
+                }
+                chunkSketches.forEach((key, sketch) ->
+                    sketches.computeIfAbsent(key, k -> new PercentileIndexService.RegionSketch()).merge(sketch));
+                percentileIndex.writeEntries(entries);
+
+                scored += rows.size();
+                failed += profiles.size() - rows.size();
+                chunks++;
+                lastUserId = lastId;
+            }
+
+            percentileIndex.replaceAll(sketches);
+            rebuilt = true;
+        } finally {
+            if (!rebuilt) percentileIndex.abortRebuild();
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("snapshotDate", snapshotDate.toString());
+        result.put("householdsScored", scored);
+        result.put("householdsFailed", failed);
+        result.put("chunks", chunks);
+        result.put("percentileRegions", sketches.size());
+        result.put("elapsedMs", System.currentTimeMillis() - start);
+        return result;
+    }
+
+    private static Double getDouble(ResultSet rs, String column) throws SQLException {
+        double v = rs.getDouble(column);
+        return rs.wasNull() ? null : v;
+    }
+}
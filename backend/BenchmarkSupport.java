@@ -0,0 +1,55 @@
+package com.economic.benchmark;
+
+import com.economic.entity.*;
+
+import java.lang.reflect.Field;
+import java.util.*;
+
+// ============================================================
+//   Benchmark helpers: field injection and in-memory household fixtures
+//   (no Spring context, no database)
+// ============================================================
+final class BenchmarkSupport {
+
+    private BenchmarkSupport() {}
+
+    static void inject(Object target, String fieldName, Object value) {
+        try {
+            Field f = target.getClass().getDeclaredField(fieldName);
+            f.setAccessible(true);
+            f.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException("Cannot inject " + fieldName, e);
+        }
+    }
+
+    static FinancialProfile profile() {
+        return FinancialProfile.builder()
+            .totalSavings(45000.0)
+            .totalDebt(20000.0)
+            .monthlyExpenses(18000.0)
+            .city("Pune")
+            .state("Maharashtra")
+            .build();
+    }
+
+    // Realistic household: roughly half earners with mixed stability and skills
+    static List<FamilyMember> household(int size) {
+        String[] stability = {"STABLE", "SEMI_STABLE", "SEASONAL"};
+        List<FamilyMember> members = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            boolean earner = i % 2 == 0;
+            members.add(FamilyMember.builder()
+                .id((long) i + 1)
+                .fullName("Member " + i)
+                .age(20 + i * 3)
+                .isEarner(earner)
+                .monthlyIncome(earner ? 8000.0 + i * 1500 : null)
+                .incomeStability(earner ? stability[i % 3] : null)
+                .skills(earner ? "tailoring, driving,farming , cooking" : null)
+                .skillIds(earner ? new int[]{1, 2, 3, 4} : null)
+                .build());
+        }
+        return members;
+    }
+}
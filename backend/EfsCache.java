@@ -0,0 +1,100 @@
+package com.economic.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+// ============================================================
+//   EFS Result Cache
+//   Bounded LRU + TTL cache of calculateEFS results, keyed by userId.
+//   Profile write endpoints must call invalidate(userId) after commit.
+//   invalidate also bumps the user's generation: callers read generation()
+//   before loading, and put() drops a result computed from pre-write data.
+// ============================================================
+@Component
+public class EfsCache {
+
+    @Value("${efs.cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${efs.cache.ttl-ms:300000}")
+    private long ttlMs;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long staleDrops;
+
+    // Generation counters striped by userId (bounded memory); a collision only costs an extra miss
+    private static final int GENERATION_SLOTS = 4096;
+    private final long[] generations = new long[GENERATION_SLOTS];
+
+    private record Entry(Map<String, Object> value, long expiresAt) {}
+
+    // access-order = true gives us LRU iteration order
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+            if (size() > maxSize) {
+                evictions++;
+                return true;
+            }
+            return false;
+        }
+    };
+
+    public synchronized Map<String, Object> get(Long userId) {
+        Entry e = entries.get(userId);
+        if (e == null) {
+            misses++;
+            return null;
+        }
+        if (e.expiresAt() < System.currentTimeMillis()) {
+            entries.remove(userId);
+            evictions++;
+            misses++;
+            return null;
+        }
+        hits++;
+        return e.value();
+    }
+
+    public synchronized long generation(Long userId) {
+        return generations[slot(userId)];
+    }
+
+    // Stores the value only if no invalidate(userId) happened since generation was read
+    public synchronized Map<String, Object> put(Long userId, long generation, Map<String, Object> value) {
+        Map<String, Object> frozen = Collections.unmodifiableMap(value);
+        if (generations[slot(userId)] != generation) {
+            staleDrops++;
+            return frozen;
+        }
+        entries.put(userId, new Entry(frozen, System.currentTimeMillis() + ttlMs));
+        return frozen;
+    }
+
+    public synchronized void invalidate(Long userId) {
+        entries.remove(userId);
+        generations[slot(userId)]++;
+    }
+
+    private static int slot(Long userId) {
+        return Long.hashCode(userId * 0x9E3779B97F4A7C15L) & (GENERATION_SLOTS - 1);
+    }
+
+    public synchronized Map<String, Object> stats() {
+        long lookups = hits + misses;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", entries.size());
+        stats.put("maxSize", maxSize);
+        stats.put("ttlMs", ttlMs);
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("evictions", evictions);
+        stats.put("staleDrops", staleDrops);
+        stats.put("hitRate", lookups > 0 ? Math.round((double) hits / lookups * 1000.0) / 1000.0 : 0.0);
+        return stats;
+    }
+}
@@ -0,0 +1,32 @@
+package com.economic.metrics;
+
+import com.economic.service.EfsCache;
+import com.economic.service.SingleFlight;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// ============================================================
+//   EFS Cache Actuator Endpoint (/actuator/efscache)
+//   Cache counters, used for sizing efs.cache.max-size / efs.cache.ttl-ms,
+//   plus how many concurrent computations were coalesced. Served on the
+//   management port (127.0.0.1 only), not to API users.
+// ============================================================
+@Component
+@Endpoint(id = "efscache")
+public class EfsCacheEndpoint {
+
+    @Autowired private EfsCache efsCache;
+    @Autowired private SingleFlight singleFlight;
+
+    @ReadOperation
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>(efsCache.stats());
+        stats.put("singleFlight", singleFlight.stats());
+        return stats;
+    }
+}
@@ -0,0 +1,46 @@
+package com.economic.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "efs_snapshots", indexes = {
+    @Index(name = "idx_efs_snapshot_date_user", columnList = "snapshot_date, user_id")
+}, uniqueConstraints = {
+    // One snapshot per household per day; re-running the batch overwrites it
+    @UniqueConstraint(name = "uk_efs_snapshot_user_date", columnNames = {"user_id", "snapshot_date"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EfsSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Plain id instead of a User association: rows are written by the batch job via JDBC
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "snapshot_date", nullable = false)
+    private LocalDate snapshotDate;
+
+    private Double economicFlexibilityScore;
+    private String riskLevel;
+    private Double survivalMonths;
+    private Double totalIncome;
+    private Integer earnerCount;
+    private Integer dependentCount;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    public void prePersist() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,76 @@
+package com.economic.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+// ============================================================
+//   Export CLI job: runs one ExportService dump and exits.
+//   java -jar economic-flexibility.jar --spring.main.web-application-type=none \
+//        --export.job.dataset=tracker --export.job.format=ndjson --export.job.gzip=true \
+//        --export.job.output=/data/tracker.ndjson.gz
+//   export.job.output is a required file path: stdout also carries the
+//   banner and console logging, so it is not offered as a target.
+// ============================================================
+@Component
+@ConditionalOnProperty(name = "export.job.dataset")
+public class ExportJob implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportJob.class);
+
+    @Autowired private ExportService exportService;
+    @Autowired private ConfigurableApplicationContext context;
+
+    @Value("${export.job.dataset}")
+    private String dataset;
+
+    @Value("${export.job.format:csv}")
+    private String format;
+
+    @Value("${export.job.gzip:false}")
+    private boolean gzip;
+
+    @Value("${export.job.output:}")
+    private String output;
+
+    @Value("${export.job.from:}")
+    private String from;
+
+    @Value("${export.job.to:}")
+    private String to;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (output.isBlank() || output.equals("-")) {
+            throw new IllegalArgumentException("export.job.output must be a file path");
+        }
+        ExportService.Dataset ds = ExportService.Dataset.valueOf(dataset.toUpperCase());
+        ExportService.Format fmt = ExportService.Format.valueOf(format.toUpperCase());
+        long start = System.currentTimeMillis();
+
+        long rows;
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(Path.of(output)), 64 * 1024)) {
+            rows = exportService.export(ds, fmt, gzip, date(from), date(to), out);
+        }
+        log.info("Exported {} {} rows to {} in {} ms", rows, ds, output, System.currentTimeMillis() - start);
+
+        System.exit(SpringApplication.exit(context, () -> 0));
+    }
+
+    private static LocalDate date(String value) {
+        return value == null || value.isBlank() ? null : LocalDate.parse(value);
+    }
+}
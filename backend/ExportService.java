@@ -0,0 +1,186 @@
+package com.economic.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.zip.GZIPOutputStream;
+
+// ============================================================
+//   Streaming Export (scores and resilience tracker)
+//   Reads with a forward-only, read-only cursor and writes each row
+//   straight to the output stream as CSV or NDJSON, optionally gzipped.
+//   Heap use does not grow with the row count.
+//   Column names match the import format, so tracker dumps re-import as is.
+// ============================================================
+@Service
+public class ExportService {
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private ObjectMapper objectMapper;
+
+    // Connector/J streams row by row only for this fetch size; useCursorFetch would switch every
+    // statement to server-side prepares and lose rewriteBatchedStatements for the batch writers
+    private static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+    private static final LocalDate ALL_FROM = LocalDate.of(1900, 1, 1);
+    private static final LocalDate ALL_TO = LocalDate.of(9999, 12, 31);
+
+    public enum Format { CSV, NDJSON }
+
+    public enum Dataset {
+        // Nightly efs_snapshots rows written by BatchScoringService
+        SCORES("SELECT user_id AS userId, snapshot_date AS snapshotDate, " +
+               "economic_flexibility_score AS economicFlexibilityScore, risk_level AS riskLevel, " +
+               "survival_months AS survivalMonths, total_income AS totalIncome, " +
+               "earner_count AS earnerCount, dependent_count AS dependentCount " +
+               "FROM efs_snapshots WHERE snapshot_date BETWEEN ? AND ? ORDER BY id"),
+        TRACKER("SELECT user_id AS userId, month, total_income AS totalIncome, total_expenses AS totalExpenses, " +
+                "total_savings AS totalSavings, total_debt AS totalDebt, income_source_count AS incomeSourceCount, " +
+                "skill_count AS skillCount, dependent_count AS dependentCount, earner_count AS earnerCount, " +
+                "emergency_fund_ratio AS emergencyFundRatio, resilience_score AS resilienceScore " +
+                "FROM resilience_tracker WHERE month BETWEEN ? AND ? ORDER BY id");
+
+        private final String sql;
+
+        Dataset(String sql) {
+            this.sql = sql;
+        }
+    }
+
+    /**
+     * Streams the dataset to out and returns the number of rows written. from/to (inclusive)
+     * filter on snapshot_date / month; null means unbounded. out is finished but not closed.
+     */
+    public long export(Dataset dataset, Format format, boolean gzip, LocalDate from, LocalDate to,
+                       OutputStream out) throws IOException {
+        GZIPOutputStream gz = gzip ? new GZIPOutputStream(out, 64 * 1024) : null;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(gz != null ? gz : out, StandardCharsets.UTF_8), 64 * 1024);
+        RowWriter rows = format == Format.CSV ? new CsvWriter(writer) : new NdjsonWriter(objectMapper.getFactory().createGenerator(writer));
+
+        long[] count = {0};
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(dataset.sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(STREAMING_FETCH_SIZE);
+            ps.setDate(1, Date.valueOf(from != null ? from : ALL_FROM));
+            ps.setDate(2, Date.valueOf(to != null ? to : ALL_TO));
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            try {
+                if (count[0] == 0) rows.header(rs.getMetaData());
+                rows.row(rs);
+                count[0]++;
+            } catch (IOException e) {
+                // Client went away: abort the query instead of reading the rest of the table
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        rows.finish();
+        writer.flush();
+        if (gz != null) gz.finish();
+        return count[0];
+    }
+
+    public static String fileName(Dataset dataset, Format format, boolean gzip) {
+        return dataset.name().toLowerCase() + "-" + LocalDate.now() + (format == Format.CSV ? ".csv" : ".ndjson") + (gzip ? ".gz" : "");
+    }
+
+    // ==========================================
+    //   ROW WRITERS
+    // ==========================================
+    private interface RowWriter {
+        void header(ResultSetMetaData meta) throws SQLException, IOException;
+        void row(ResultSet rs) throws SQLException, IOException;
+        void finish() throws IOException;
+    }
+
+    private static final class CsvWriter implements RowWriter {
+        private final Writer out;
+        private int columns;
+
+        CsvWriter(Writer out) {
+            this.out = out;
+        }
+
+        @Override
+        public void header(ResultSetMetaData meta) throws SQLException, IOException {
+            columns = meta.getColumnCount();
+            for (int i = 1; i <= columns; i++) {
+                if (i > 1) out.write(',');
+                out.write(meta.getColumnLabel(i));
+            }
+            out.write('\n');
+        }
+
+        @Override
+        public void row(ResultSet rs) throws SQLException, IOException {
+            for (int i = 1; i <= columns; i++) {
+                if (i > 1) out.write(',');
+                Object v = rs.getObject(i);
+                if (v == null) continue;
+                if (v instanceof String s) writeQuoted(s);
+                else out.write(v.toString()); // numbers and java.sql.Date (yyyy-MM-dd)
+            }
+            out.write('\n');
+        }
+
+        private void writeQuoted(String s) throws IOException {
+            if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0) {
+                out.write(s);
+                return;
+            }
+            out.write('"');
+            out.write(s.replace("\"", "\"\""));
+            out.write('"');
+        }
+
+        @Override
+        public void finish() {
+        }
+    }
+
+    private static final class NdjsonWriter implements RowWriter {
+        private final JsonGenerator json;
+        private String[] names;
+
+        NdjsonWriter(JsonGenerator json) {
+            this.json = json;
+            json.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void header(ResultSetMetaData meta) throws SQLException {
+            names = new String[meta.getColumnCount()];
+            for (int i = 0; i < names.length; i++) names[i] = meta.getColumnLabel(i + 1);
+        }
+
+        @Override
+        public void row(ResultSet rs) throws SQLException, IOException {
+            json.writeStartObject();
+            for (int i = 0; i < names.length; i++) {
+                Object v = rs.getObject(i + 1);
+                if (v == null) continue;
+                json.writeFieldName(names[i]);
+                if (v instanceof Integer n) json.writeNumber(n);
+                else if (v instanceof Long n) json.writeNumber(n);
+                else if (v instanceof Number n) json.writeNumber(n.doubleValue());
+                else json.writeString(v.toString());
+            }
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            json.flush();
+        }
+    }
+}
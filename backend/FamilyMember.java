@@ -1,10 +1,15 @@
 package com.economic.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "family_members")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "familyMember")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -15,6 +20,7 @@ public class FamilyMember {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @JsonIgnore // lazy proxy; also keeps the user's password hash out of responses
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
@@ -32,4 +38,11 @@ public class FamilyMember {
 
     // Skills (comma-separated)
     private String skills;
+
+    // Sorted interned skill ids (see SkillCatalog); derived from skills on save,
+    // null when the member has more than SkillCatalog.MAX_SKILLS_PER_MEMBER skills
+    @JsonIgnore
+    @Convert(converter = SkillIdsConverter.class)
+    @Column(name = "skill_ids", length = 320)
+    private int[] skillIds;
 }
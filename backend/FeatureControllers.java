@@ -2,12 +2,30 @@ package com.economic.controller;
 
 import com.economic.entity.*;
 import com.economic.repository.*;
+import com.economic.security.AuthPrincipal;
+import com.economic.service.ExportService;
 import com.economic.service.FormulaService;
+import com.economic.service.GoalSolverService;
+import com.economic.service.MonteCarloService;
+import com.economic.service.OpportunityOptimizerService;
+import com.economic.service.ResilienceForecastService;
+import com.economic.service.ResilienceImportService;
+import com.economic.service.ResilienceTrackerService;
+import com.economic.service.ResilienceTrendService;
+import com.economic.service.SkillCatalog;
+import com.economic.service.StressSurfaceService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.time.LocalDate;
 import java.util.*;
 
@@ -18,14 +36,13 @@ import java.util.*;
 @RequestMapping("/api/economic-score")
 class EconomicStabilityController {
 
-    @Autowired private UserRepository userRepository;
     @Autowired private FormulaService formulaService;
+    @Autowired private GoalSolverService goalSolverService;
 
     @GetMapping
-    public ResponseEntity<?> getScore(Authentication auth) {
-        User user = userRepository.findByUsername(auth.getName()).orElseThrow();
+    public ResponseEntity<?> getScore(@AuthenticationPrincipal AuthPrincipal principal) {
         try {
-            Map<String, Object> result = formulaService.calculateEFS(user.getId());
+            Map<String, Object> result = formulaService.calculateEFS(principal.getUserId());
             return ResponseEntity.ok(result);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of(
@@ -34,6 +51,62 @@ class EconomicStabilityController {
             ));
         }
     }
+
+    // "You are in the 35th percentile in your district": EFS / survival percentiles per region
+    @GetMapping("/percentile")
+    public ResponseEntity<?> getPercentile(@AuthenticationPrincipal AuthPrincipal principal) {
+        try {
+            return ResponseEntity.ok(formulaService.populationPercentiles(principal.getUserId()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", "Please complete your profile first. " + e.getMessage()
+            ));
+        }
+    }
+
+    // Which input would move the score most (one household load, perturbations in memory)
+    @GetMapping("/sensitivity")
+    public ResponseEntity<?> getSensitivity(@AuthenticationPrincipal AuthPrincipal principal) {
+        try {
+            return ResponseEntity.ok(formulaService.analyzeSensitivity(principal.getUserId()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", "Please complete your profile first. " + e.getMessage()
+            ));
+        }
+    }
+
+    // Inverse solver: minimal changes to reach STRONG (EFS >= 1.0) and N months of survival, e.g.
+    // {"targetEfs": 1.0, "targetSurvivalMonths": 6, "shocks": [{"shockType": "JOB_LOSS"}]}
+    @PostMapping("/goals")
+    @SuppressWarnings("unchecked")
+    public ResponseEntity<?> solveGoals(@RequestBody(required = false) Map<String, Object> request,
+                                        @AuthenticationPrincipal AuthPrincipal principal) {
+        try {
+            Map<String, Object> params = request != null ? request : Map.of();
+            double targetEfs = params.containsKey("targetEfs")
+                ? ((Number) params.get("targetEfs")).doubleValue() : GoalSolverService.STRONG_EFS;
+            double targetMonths = params.containsKey("targetSurvivalMonths")
+                ? ((Number) params.get("targetSurvivalMonths")).doubleValue() : GoalSolverService.DEFAULT_SURVIVAL_MONTHS;
+
+            List<FormulaService.Shock> shocks = new ArrayList<>();
+            for (Map<String, Object> shock : (List<Map<String, Object>>) params.getOrDefault("shocks", List.of())) {
+                String shockType = (String) shock.get("shockType");
+                if (shockType == null) throw new RuntimeException("shockType is required");
+                double shockValue = shock.containsKey("shockValue")
+                    ? ((Number) shock.get("shockValue")).doubleValue() : 0;
+                shocks.add(new FormulaService.Shock(shockType, shockValue));
+            }
+
+            return ResponseEntity.ok(goalSolverService.solve(principal.getUserId(), targetEfs, targetMonths, shocks));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false, "message", e.getMessage()
+            ));
+        }
+    }
 }
 
 
@@ -44,18 +117,77 @@ class EconomicStabilityController {
 @RequestMapping("/api/shock-simulate")
 class ShockSimulationController {
 
-    @Autowired private UserRepository userRepository;
     @Autowired private FormulaService formulaService;
+    @Autowired private MonteCarloService monteCarloService;
+    @Autowired private StressSurfaceService stressSurfaceService;
+
+    private static final int MAX_SCENARIOS = 50;
 
     @PostMapping
-    public ResponseEntity<?> simulate(@RequestBody Map<String, Object> request, Authentication auth) {
-        User user = userRepository.findByUsername(auth.getName()).orElseThrow();
+    public ResponseEntity<?> simulate(@RequestBody Map<String, Object> request, @AuthenticationPrincipal AuthPrincipal principal) {
         try {
             String shockType = (String) request.get("shockType");
             double shockValue = request.containsKey("shockValue")
                 ? ((Number) request.get("shockValue")).doubleValue() : 0;
 
-            Map<String, Object> result = formulaService.simulateShock(user.getId(), shockType, shockValue);
+            Map<String, Object> result = formulaService.simulateShock(principal.getUserId(), shockType, shockValue);
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false, "message", e.getMessage()
+            ));
+        }
+    }
+
+    // Many scenarios against one household load, e.g.
+    // {"scenarios": [{"shockType": "JOB_LOSS"},
+    //                {"shocks": [{"shockType": "JOB_LOSS"}, {"shockType": "MEDICAL_EMERGENCY", "shockValue": 20000}]}]}
+    @PostMapping("/batch")
+    @SuppressWarnings("unchecked")
+    public ResponseEntity<?> simulateBatch(@RequestBody Map<String, Object> request, @AuthenticationPrincipal AuthPrincipal principal) {
+        try {
+            List<Map<String, Object>> scenarios = (List<Map<String, Object>>) request.get("scenarios");
+            if (scenarios == null || scenarios.isEmpty()) throw new RuntimeException("scenarios is required");
+            if (scenarios.size() > MAX_SCENARIOS) throw new RuntimeException("At most " + MAX_SCENARIOS + " scenarios per request");
+
+            List<List<FormulaService.Shock>> parsed = new ArrayList<>(scenarios.size());
+            for (Map<String, Object> scenario : scenarios) {
+                List<Map<String, Object>> shocks = scenario.containsKey("shocks")
+                    ? (List<Map<String, Object>>) scenario.get("shocks") : List.of(scenario);
+                List<FormulaService.Shock> combined = new ArrayList<>(shocks.size());
+                for (Map<String, Object> shock : shocks) {
+                    String shockType = (String) shock.get("shockType");
+                    if (shockType == null) throw new RuntimeException("shockType is required");
+                    double shockValue = shock.containsKey("shockValue")
+                        ? ((Number) shock.get("shockValue")).doubleValue() : 0;
+                    combined.add(new FormulaService.Shock(shockType, shockValue));
+                }
+                parsed.add(combined);
+            }
+
+            return ResponseEntity.ok(formulaService.simulateShockScenarios(principal.getUserId(), parsed));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false, "message", e.getMessage()
+            ));
+        }
+    }
+
+    // Stochastic multi-month simulation: survival curve + savings percentile bands
+    @PostMapping("/monte-carlo")
+    public ResponseEntity<?> simulateMonteCarlo(@RequestBody Map<String, Object> request, @AuthenticationPrincipal AuthPrincipal principal) {
+        try {
+            int paths = request.containsKey("paths") ? ((Number) request.get("paths")).intValue() : 10_000;
+            int months = request.containsKey("months") ? ((Number) request.get("months")).intValue() : 24;
+            double shockProbability = request.containsKey("shockProbability")
+                ? ((Number) request.get("shockProbability")).doubleValue() : 0.05;
+            double shockSeverity = request.containsKey("shockSeverity")
+                ? ((Number) request.get("shockSeverity")).doubleValue() : 2.0;
+            long seed = request.containsKey("seed")
+                ? ((Number) request.get("seed")).longValue() : System.nanoTime();
+
+            Map<String, Object> result = monteCarloService.simulate(
+                principal.getUserId(), paths, months, shockProbability, shockSeverity, seed);
             return ResponseEntity.ok(result);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of(
@@ -63,6 +195,26 @@ class ShockSimulationController {
             ));
         }
     }
+
+    // Survival months heatmap: income drop 0-100% (rows) x added monthly expense (columns)
+    @PostMapping("/stress-grid")
+    public ResponseEntity<?> simulateStressGrid(@RequestBody(required = false) Map<String, Object> request,
+                                                @AuthenticationPrincipal AuthPrincipal principal) {
+        try {
+            Map<String, Object> params = request != null ? request : Map.of();
+            int incomeSteps = params.containsKey("incomeSteps") ? ((Number) params.get("incomeSteps")).intValue() : 101;
+            int expenseSteps = params.containsKey("expenseSteps") ? ((Number) params.get("expenseSteps")).intValue() : 101;
+            Double maxAddedExpense = params.containsKey("maxAddedExpense")
+                ? ((Number) params.get("maxAddedExpense")).doubleValue() : null;
+
+            return ResponseEntity.ok(stressSurfaceService.stressGrid(
+                principal.getUserId(), incomeSteps, expenseSteps, maxAddedExpense));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false, "message", e.getMessage()
+            ));
+        }
+    }
 }
 
 
@@ -73,19 +225,18 @@ class ShockSimulationController {
 @RequestMapping("/api/opportunity-simulate")
 class OpportunityController {
 
-    @Autowired private UserRepository userRepository;
     @Autowired private FormulaService formulaService;
+    @Autowired private OpportunityOptimizerService optimizerService;
 
     @PostMapping
-    public ResponseEntity<?> simulate(@RequestBody Map<String, Object> request, Authentication auth) {
-        User user = userRepository.findByUsername(auth.getName()).orElseThrow();
+    public ResponseEntity<?> simulate(@RequestBody Map<String, Object> request, @AuthenticationPrincipal AuthPrincipal principal) {
         try {
             double investmentCost = ((Number) request.get("investmentCost")).doubleValue();
             double expectedIncomeIncrease = ((Number) request.get("expectedIncomeIncrease")).doubleValue();
             double successProbability = ((Number) request.get("successProbability")).doubleValue();
 
             Map<String, Object> result = formulaService.simulateOpportunity(
-                user.getId(), investmentCost, expectedIncomeIncrease, successProbability);
+                principal.getUserId(), investmentCost, expectedIncomeIncrease, successProbability);
             return ResponseEntity.ok(result);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of(
@@ -93,6 +244,36 @@ class OpportunityController {
             ));
         }
     }
+
+    // Best affordable subset of opportunities, e.g.
+    // {"minSurvivalMonths": 3, "candidates": [{"name": "Sewing machine", "investmentCost": 12000,
+    //   "expectedIncomeIncrease": 4000, "successProbability": 0.8}, ...]}
+    @PostMapping("/optimize")
+    @SuppressWarnings("unchecked")
+    public ResponseEntity<?> optimize(@RequestBody Map<String, Object> request, @AuthenticationPrincipal AuthPrincipal principal) {
+        try {
+            List<Map<String, Object>> raw = (List<Map<String, Object>>) request.get("candidates");
+            if (raw == null || raw.isEmpty()) throw new RuntimeException("candidates is required");
+            double minSurvivalMonths = request.containsKey("minSurvivalMonths")
+                ? ((Number) request.get("minSurvivalMonths")).doubleValue() : 0;
+
+            List<OpportunityOptimizerService.Candidate> candidates = new ArrayList<>(raw.size());
+            for (int i = 0; i < raw.size(); i++) {
+                Map<String, Object> c = raw.get(i);
+                candidates.add(new OpportunityOptimizerService.Candidate(
+                    c.containsKey("name") ? (String) c.get("name") : "Opportunity " + (i + 1),
+                    ((Number) c.get("investmentCost")).doubleValue(),
+                    ((Number) c.get("expectedIncomeIncrease")).doubleValue(),
+                    ((Number) c.get("successProbability")).doubleValue()));
+            }
+
+            return ResponseEntity.ok(optimizerService.optimize(principal.getUserId(), candidates, minSurvivalMonths));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false, "message", e.getMessage()
+            ));
+        }
+    }
 }
 
 
@@ -103,64 +284,166 @@ class OpportunityController {
 @RequestMapping("/api/resilience-tracker")
 class ResilienceTrackerController {
 
-    @Autowired private UserRepository userRepository;
     @Autowired private ResilienceTrackerRepository trackerRepository;
-    @Autowired private FormulaService formulaService;
+    @Autowired private ResilienceTrackerService trackerService;
+    @Autowired private ResilienceImportService importService;
+    @Autowired private ResilienceTrendService trendService;
+    @Autowired private ResilienceForecastService forecastService;
+
+    private static final LocalDate HISTORY_START = LocalDate.of(1900, 1, 1);
+    private static final LocalDate HISTORY_END = LocalDate.of(9999, 12, 1);
+    private static final int MAX_PAGE_SIZE = 120;
 
-    // Save monthly entry
+    // Save monthly entry (re-scores the following month when this one changes)
     @PostMapping
-    public ResponseEntity<?> saveMonthlyEntry(@RequestBody ResilienceTracker request, Authentication auth) {
-        User user = userRepository.findByUsername(auth.getName()).orElseThrow();
-
-        LocalDate month = request.getMonth() != null ? request.getMonth() : LocalDate.now().withDayOfMonth(1);
-
-        // Get previous month for delta calculation
-        LocalDate prevMonth = month.minusMonths(1);
-        Optional<ResilienceTracker> prev = trackerRepository.findByUserIdAndMonth(user.getId(), prevMonth);
-
-        double deltaSavings = prev.map(p -> request.getTotalSavings() - p.getTotalSavings()).orElse(0.0);
-        double deltaDebt = prev.map(p -> p.getTotalDebt() - request.getTotalDebt()).orElse(0.0);
-
-        double score = formulaService.calculateResilienceScore(
-            request.getTotalSavings(),
-            request.getTotalExpenses(),
-            request.getIncomeSourceCount() != null ? request.getIncomeSourceCount() : 1,
-            request.getSkillCount() != null ? request.getSkillCount() : 0,
-            deltaSavings,
-            deltaDebt
-        );
-
-        ResilienceTracker tracker = trackerRepository.findByUserIdAndMonth(user.getId(), month)
-            .orElse(new ResilienceTracker());
-
-        tracker.setUser(user);
-        tracker.setMonth(month);
-        tracker.setTotalIncome(request.getTotalIncome());
-        tracker.setTotalExpenses(request.getTotalExpenses());
-        tracker.setTotalSavings(request.getTotalSavings());
-        tracker.setTotalDebt(request.getTotalDebt());
-        tracker.setIncomeSourceCount(request.getIncomeSourceCount());
-        tracker.setSkillCount(request.getSkillCount());
-        tracker.setDependentCount(request.getDependentCount());
-        tracker.setEarnerCount(request.getEarnerCount());
-        tracker.setEmergencyFundRatio(request.getTotalExpenses() > 0
-            ? request.getTotalSavings() / request.getTotalExpenses() : 0);
-        tracker.setResilienceScore(score);
-
-        trackerRepository.save(tracker);
+    public ResponseEntity<?> saveMonthlyEntry(@RequestBody ResilienceTracker request, @AuthenticationPrincipal AuthPrincipal principal) {
+        Map<String, Object> saved = trackerService.saveMonth(principal.getUserId(), request);
+        double score = (double) saved.get("resilienceScore");
 
         return ResponseEntity.ok(Map.of(
             "success", true,
             "resilienceScore", Math.round(score * 10.0) / 10.0,
+            "laterMonthsUpdated", saved.get("laterMonthsUpdated"),
             "message", "Monthly data saved successfully"
         ));
     }
 
-    // Get all history
+    // Bulk import of many months, streamed from the request body.
+    // CSV (Content-Type text/csv, header row) or NDJSON (one JSON object per line);
+    // rows must be in ascending month order.
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson", "text/plain"})
+    public ResponseEntity<?> importHistory(HttpServletRequest request, @AuthenticationPrincipal AuthPrincipal principal) {
+        try {
+            String contentType = request.getContentType();
+            ResilienceImportService.Format format = contentType != null && contentType.startsWith("text/csv")
+                ? ResilienceImportService.Format.CSV : ResilienceImportService.Format.NDJSON;
+            return ResponseEntity.ok(importService.importStream(request.getInputStream(), format, principal.getUserId()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false, "message", e.getMessage()
+            ));
+        }
+    }
+
+    // Get all history (chart columns only)
     @GetMapping("/history")
-    public ResponseEntity<?> getHistory(Authentication auth) {
-        User user = userRepository.findByUsername(auth.getName()).orElseThrow();
-        List<ResilienceTracker> history = trackerRepository.findByUserIdOrderByMonthAsc(user.getId());
+    public ResponseEntity<?> getHistory(@AuthenticationPrincipal AuthPrincipal principal) {
+        List<ResilienceTrackerRepository.HistoryRow> history = trackerRepository.findHistoryPage(
+            principal.getUserId(), HISTORY_START, HISTORY_END, Pageable.unpaged());
         return ResponseEntity.ok(history);
     }
+
+    // Rolling 3/6/12-month averages, savings velocity and debt paydown rate
+    @GetMapping("/trends")
+    public ResponseEntity<?> getTrends(@AuthenticationPrincipal AuthPrincipal principal) {
+        return ResponseEntity.ok(trendService.getTrends(principal.getUserId()));
+    }
+
+    // Projected score / savings / debt for the next 1-12 months with 80% and 95% bands
+    @GetMapping("/forecast")
+    public ResponseEntity<?> getForecast(@RequestParam(defaultValue = "12") int months,
+                                         @AuthenticationPrincipal AuthPrincipal principal) {
+        try {
+            return ResponseEntity.ok(forecastService.forecast(principal.getUserId(), months));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false, "message", e.getMessage()
+            ));
+        }
+    }
+
+    // Keyset-paginated history: pass the previous page's nextCursor as "after".
+    // Optional from/to (yyyy-MM-dd) bound the date range.
+    @GetMapping("/history/page")
+    public ResponseEntity<?> getHistoryPage(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate after,
+                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                            @RequestParam(defaultValue = "24") int size,
+                                            @AuthenticationPrincipal AuthPrincipal principal) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        LocalDate lower = HISTORY_START;
+        if (from != null) lower = from.minusDays(1);
+        if (after != null && after.isAfter(lower)) lower = after;
+        LocalDate upper = to != null ? to : HISTORY_END;
+
+        List<ResilienceTrackerRepository.HistoryRow> items = trackerRepository.findHistoryPage(
+            principal.getUserId(), lower, upper, PageRequest.of(0, pageSize));
+
+        Map<String, Object> page = new LinkedHashMap<>();
+        page.put("items", items);
+        page.put("nextCursor", items.size() == pageSize ? items.get(items.size() - 1).getMonth() : null);
+        return ResponseEntity.ok(page);
+    }
+}
+
+
+// ============================================================
+//   Skill Catalogue Controller
+// ============================================================
+@RestController
+@RequestMapping("/api/skills")
+class SkillController {
+
+    @Autowired private SkillCatalog skillCatalog;
+
+    // All normalized skill names
+    @GetMapping
+    public ResponseEntity<?> getSkills() {
+        return ResponseEntity.ok(skillCatalog.names());
+    }
+
+    // How many households have at least one member with this skill
+    @GetMapping("/{name}/households")
+    public ResponseEntity<?> countHouseholds(@PathVariable String name) {
+        Integer skillId = skillCatalog.find(name);
+        return ResponseEntity.ok(Map.of(
+            "skill", SkillCatalog.normalize(name),
+            "households", skillId != null ? skillCatalog.countHouseholdsWithSkill(skillId) : 0L
+        ));
+    }
+}
+
+
+// ============================================================
+//   Export Controller (reporting dumps, streamed)
+// ============================================================
+@RestController
+@RequestMapping("/api/export")
+class ExportController {
+
+    @Autowired private ExportService exportService;
+
+    // Usernames allowed to dump every household's data (export.allowed-users, comma-separated)
+    @Value("${export.allowed-users:}")
+    private Set<String> allowedUsers;
+
+    // /api/export/scores or /api/export/tracker ?format=csv|ndjson&gzip=true&from=&to=
+    @GetMapping("/{dataset}")
+    public void export(@PathVariable String dataset,
+                       @RequestParam(defaultValue = "csv") String format,
+                       @RequestParam(defaultValue = "false") boolean gzip,
+                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                       @AuthenticationPrincipal AuthPrincipal principal,
+                       HttpServletResponse response) throws IOException {
+        if (!allowedUsers.contains(principal.getUsername())) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN, "Export is restricted to reporting users");
+            return;
+        }
+        ExportService.Dataset ds;
+        ExportService.Format fmt;
+        try {
+            ds = ExportService.Dataset.valueOf(dataset.toUpperCase());
+            fmt = ExportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "dataset must be scores|tracker, format csv|ndjson");
+            return;
+        }
+
+        response.setContentType(gzip ? "application/gzip"
+            : fmt == ExportService.Format.CSV ? "text/csv;charset=UTF-8" : "application/x-ndjson;charset=UTF-8");
+        response.setHeader("Content-Disposition",
+            "attachment; filename=\"" + ExportService.fileName(ds, fmt, gzip) + "\"");
+        exportService.export(ds, fmt, gzip, from, to, response.getOutputStream());
+    }
 }
@@ -1,7 +1,7 @@
 package com.economic.service;
 
 import com.economic.entity.*;
-import com.economic.repository.*;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -10,8 +10,10 @@ import java.util.*;
 @Service
 public class FormulaService {
 
-    @Autowired private FamilyMemberRepository memberRepository;
-    @Autowired private FinancialProfileRepository financialRepo;
+    @Autowired private HouseholdLoader householdLoader;
+    @Autowired private EfsCache efsCache;
+    @Autowired private SingleFlight singleFlight;
+    @Autowired private PercentileIndexService percentileIndex;
 
     // ==========================================
     //   1. INCOME STABILITY VALUE (numeric)
@@ -28,10 +30,47 @@ public class FormulaService {
     // ==========================================
     //   2. ECONOMIC FLEXIBILITY SCORE (EFS)
     // ==========================================
+    @Timed(value = "formula.efs", histogram = true)
     public Map<String, Object> calculateEFS(Long userId) {
-        FinancialProfile fp = financialRepo.findByUserId(userId)
-            .orElseThrow(() -> new RuntimeException("Financial profile not found"));
-        List<FamilyMember> members = memberRepository.findByUserId(userId);
+        // Read before the load: a profile write that lands mid-computation makes put() drop the result
+        long generation = efsCache.generation(userId);
+        Map<String, Object> cached = efsCache.get(userId);
+        if (cached != null) return cached;
+
+        // Concurrent misses for one household (several devices, double-fired effects) share one load;
+        // the generation in the key keeps post-write callers from joining a pre-write computation
+        return singleFlight.execute("efs", userId, List.of(generation),
+            () -> efsCache.put(userId, generation, computeEFS(userId)));
+    }
+
+    private Map<String, Object> computeEFS(Long userId) {
+        return scoreAndIndex(userId, householdLoader.load(userId));
+    }
+
+    // Scores the snapshot and folds the result into the regional percentile index (asynchronously)
+    private Map<String, Object> scoreAndIndex(Long userId, HouseholdSnapshot household) {
+        Map<String, Object> result = scoreEFS(household.requireProfile(), household.members());
+        percentileIndex.record(userId, household.profile(),
+            ((Number) result.get("economicFlexibilityScore")).doubleValue(),
+            ((Number) result.get("survivalMonths")).doubleValue());
+        return result;
+    }
+
+    // Where the household's EFS and survival months sit among its district / city / state / all
+    @Timed(value = "formula.efs.percentile", histogram = true)
+    public Map<String, Object> populationPercentiles(Long userId) {
+        long generation = efsCache.generation(userId);
+        HouseholdSnapshot household = householdLoader.load(userId);
+        Map<String, Object> score = efsCache.get(userId);
+        if (score == null) score = efsCache.put(userId, generation, scoreAndIndex(userId, household));
+        return percentileIndex.percentiles(household.requireProfile(),
+            ((Number) score.get("economicFlexibilityScore")).doubleValue(),
+            ((Number) score.get("survivalMonths")).doubleValue());
+    }
+
+    // Pure EFS formula over an already-loaded household (no DB access).
+    // Not @Timed: the request path reaches it by self-invocation, so formula.efs covers it
+    public Map<String, Object> scoreEFS(FinancialProfile fp, List<FamilyMember> members) {
         List<FamilyMember> earners = members.stream().filter(FamilyMember::getIsEarner).toList();
 
         double totalIncome = earners.stream()
@@ -61,14 +100,15 @@ public class FormulaService {
             earners.stream().mapToDouble(e -> getStabilityValue(e.getIncomeStability())).average().orElse(0.4);
 
         // 5. Skill count
-        long totalSkills = earners.stream()
-            .mapToLong(e -> e.getSkills() != null && !e.getSkills().isBlank()
-                ? Arrays.stream(e.getSkills().split(",")).filter(s -> !s.isBlank()).count() : 0)
-            .sum();
+        // Distinct interned skills per earner (length of the sorted id list); text fallback for rows not yet encoded
+        long totalSkills = 0;
+        for (FamilyMember e : earners) {
+            totalSkills += e.getSkillIds() != null
+                ? SkillCatalog.count(e.getSkillIds()) : SkillCatalog.countText(e.getSkills());
+        }
         double skillScore = Math.min((double) totalSkills / maxSkills, 1.0);
 
-        // Weights: w1=0.4, w2=0.2, w3=0.2, w4=0.2
-        double rawScore = (0.4 * Math.min(ebr, 2.0)) + (0.2 * ids) - (0.2 * Math.min(dr, 2.0)) + (0.2 * isf);
+        double rawScore = rawEFS(ebr, ids, dr, isf);
         double efs = Math.max(0, Math.min(rawScore, 2.0)); // clamp 0-2
 
         // Risk Level
@@ -98,51 +138,62 @@ public class FormulaService {
         return result;
     }
 
+    // Weights: w1=0.4, w2=0.2, w3=0.2, w4=0.2 (unclamped; callers clamp to 0-2)
+    private static double rawEFS(double ebr, double ids, double dr, double isf) {
+        return (0.4 * Math.min(ebr, 2.0)) + (0.2 * ids) - (0.2 * Math.min(dr, 2.0)) + (0.2 * isf);
+    }
+
     // ==========================================
     //   3. SHOCK SIMULATION
     // ==========================================
+    public record Shock(String shockType, double shockValue) {}
+
+    @Timed(value = "formula.shock", histogram = true)
     public Map<String, Object> simulateShock(Long userId, String shockType, double shockValue) {
-        FinancialProfile fp = financialRepo.findByUserId(userId)
-            .orElseThrow(() -> new RuntimeException("Financial profile not found"));
-        List<FamilyMember> earners = memberRepository.findByUserIdAndIsEarnerTrue(userId);
+        List<Object> inputs = List.of(efsCache.generation(userId), String.valueOf(shockType), shockValue);
+        return singleFlight.execute("shock", userId, inputs, () -> {
+            HouseholdSnapshot household = householdLoader.load(userId);
+            return Collections.unmodifiableMap(evaluateShock(household, List.of(new Shock(shockType, shockValue))).result());
+        });
+    }
 
-        double totalIncome = earners.stream()
-            .mapToDouble(m -> m.getMonthlyIncome() != null ? m.getMonthlyIncome() : 0).sum();
+    // Loads the household once and evaluates every scenario (single or combined shocks)
+    // against that snapshot; results are ranked by survival months, most dangerous first.
+    @Timed(value = "formula.shock.batch", histogram = true)
+    public List<Map<String, Object>> simulateShockScenarios(Long userId, List<List<Shock>> scenarios) {
+        HouseholdSnapshot household = householdLoader.load(userId);
+        household.requireProfile();
+
+        List<ShockOutcome> outcomes = new ArrayList<>(scenarios.size());
+        for (List<Shock> scenario : scenarios) {
+            if (scenario == null || scenario.isEmpty()) throw new RuntimeException("Each scenario needs at least one shock");
+            outcomes.add(evaluateShock(household, scenario));
+        }
+        outcomes.sort(Comparator.comparingDouble(ShockOutcome::survivalMonths));
+
+        List<Map<String, Object>> ranked = new ArrayList<>(outcomes.size());
+        for (int i = 0; i < outcomes.size(); i++) {
+            Map<String, Object> r = new LinkedHashMap<>();
+            r.put("rank", i + 1);
+            r.putAll(outcomes.get(i).result());
+            ranked.add(r);
+        }
+        return ranked;
+    }
+
+    private record ShockOutcome(double survivalMonths, Map<String, Object> result) {}
+
+    private ShockOutcome evaluateShock(HouseholdSnapshot household, List<Shock> shocks) {
+        FinancialProfile fp = household.requireProfile();
+        double totalIncome = household.totalIncome();
         double expenses = fp.getMonthlyExpenses() != null ? fp.getMonthlyExpenses() : 0;
         double savings = fp.getTotalSavings() != null ? fp.getTotalSavings() : 0;
 
-        double newIncome = totalIncome;
-        double newExpenses = expenses;
-        double newSavings = savings;
-
-        String shockDescription;
-        switch (shockType.toUpperCase()) {
-            case "JOB_LOSS" -> {
-                newIncome = 0;
-                shockDescription = "Complete Job Loss";
-            }
-            case "INCOME_DROP_20" -> {
-                newIncome = totalIncome * 0.80;
-                shockDescription = "20% Income Drop";
-            }
-            case "INCOME_DROP_30" -> {
-                newIncome = totalIncome * 0.70;
-                shockDescription = "30% Income Drop";
-            }
-            case "MEDICAL_EMERGENCY" -> {
-                newSavings = savings - shockValue;
-                shockDescription = "Medical Emergency ₹" + shockValue;
-            }
-            case "MIGRATION_COST" -> {
-                newSavings = savings - shockValue;
-                shockDescription = "Migration Cost ₹" + shockValue;
-            }
-            case "SCHOOL_FEE_INCREASE" -> {
-                newExpenses = expenses + shockValue;
-                shockDescription = "School Fee Increase ₹" + shockValue + "/month";
-            }
-            default -> shockDescription = "Custom Shock";
-        }
+        Shocked shocked = applyShocks(totalIncome, expenses, savings, shocks);
+        double newIncome = shocked.income();
+        double newExpenses = shocked.expenses();
+        double newSavings = shocked.savings();
+        String shockDescription = shocked.description();
 
         double monthlyBalance = newIncome - newExpenses;
         double deficit = monthlyBalance < 0 ? Math.abs(monthlyBalance) : 0;
@@ -197,21 +248,79 @@ public class FormulaService {
         ));
         result.put("strategies", strategies);
 
-        return result;
+        return new ShockOutcome(survivalMonths, result);
+    }
+
+    // Household totals after a (combined) shock; shared with the goal solver
+    record Shocked(double income, double expenses, double savings, String description) {
+        double survivalMonths() {
+            double deficit = Math.max(expenses - income, 0);
+            return deficit > 0 ? savings / deficit : 99;
+        }
+    }
+
+    static Shocked applyShocks(double income, double expenses, double savings, List<Shock> shocks) {
+        double newIncome = income;
+        double newExpenses = expenses;
+        double newSavings = savings;
+
+        // Combined shocks are applied in order; income drops compound on the already-shocked income
+        List<String> descriptions = new ArrayList<>(shocks.size());
+        for (Shock shock : shocks) {
+            double shockValue = shock.shockValue();
+            String shockDescription;
+            switch (shock.shockType().toUpperCase()) {
+                case "JOB_LOSS" -> {
+                    newIncome = 0;
+                    shockDescription = "Complete Job Loss";
+                }
+                case "INCOME_DROP_20" -> {
+                    newIncome = newIncome * 0.80;
+                    shockDescription = "20% Income Drop";
+                }
+                case "INCOME_DROP_30" -> {
+                    newIncome = newIncome * 0.70;
+                    shockDescription = "30% Income Drop";
+                }
+                case "MEDICAL_EMERGENCY" -> {
+                    newSavings = newSavings - shockValue;
+                    shockDescription = "Medical Emergency ₹" + shockValue;
+                }
+                case "MIGRATION_COST" -> {
+                    newSavings = newSavings - shockValue;
+                    shockDescription = "Migration Cost ₹" + shockValue;
+                }
+                case "SCHOOL_FEE_INCREASE" -> {
+                    newExpenses = newExpenses + shockValue;
+                    shockDescription = "School Fee Increase ₹" + shockValue + "/month";
+                }
+                default -> shockDescription = "Custom Shock";
+            }
+            descriptions.add(shockDescription);
+        }
+        return new Shocked(newIncome, newExpenses, newSavings, String.join(" + ", descriptions));
     }
 
     // ==========================================
     //   4. OPPORTUNITY MODE
     // ==========================================
+    @Timed(value = "formula.opportunity", histogram = true)
     public Map<String, Object> simulateOpportunity(Long userId, double investmentCost,
                                                     double expectedIncomeIncrease,
                                                     double successProbability) {
-        FinancialProfile fp = financialRepo.findByUserId(userId)
-            .orElseThrow(() -> new RuntimeException("Financial profile not found"));
-        List<FamilyMember> earners = memberRepository.findByUserIdAndIsEarnerTrue(userId);
+        return singleFlight.execute("opportunity", userId,
+            List.of(efsCache.generation(userId), investmentCost, expectedIncomeIncrease, successProbability),
+            () -> Collections.unmodifiableMap(
+                computeOpportunity(userId, investmentCost, expectedIncomeIncrease, successProbability)));
+    }
 
-        double currentIncome = earners.stream()
-            .mapToDouble(m -> m.getMonthlyIncome() != null ? m.getMonthlyIncome() : 0).sum();
+    private Map<String, Object> computeOpportunity(Long userId, double investmentCost,
+                                                   double expectedIncomeIncrease,
+                                                   double successProbability) {
+        HouseholdSnapshot household = householdLoader.load(userId);
+        FinancialProfile fp = household.requireProfile();
+
+        double currentIncome = household.totalIncome();
         double expenses = fp.getMonthlyExpenses() != null ? fp.getMonthlyExpenses() : 0;
         double savings = fp.getTotalSavings() != null ? fp.getTotalSavings() : 0;
 
@@ -261,6 +370,7 @@ public class FormulaService {
     // ==========================================
     //   5. RESILIENCE SCORE (monthly)
     // ==========================================
+    // Not @Timed: runs once per row during tracker imports; the save endpoint is timed instead
     public double calculateResilienceScore(double savings, double expenses,
                                            int incomeSources, int skills,
                                            double deltaSavings, double deltaDebt) {
@@ -276,4 +386,126 @@ public class FormulaService {
 
         return Math.max(0, Math.min(score, 100));
     }
+
+    // ==========================================
+    //   6. EFS SENSITIVITY ANALYSIS
+    // ==========================================
+    // Effect on economicFlexibilityScore of one realistic step in each input, most helpful first.
+    // Savings/expenses also get the analytic partial derivative of the clamped formula; discrete
+    // inputs (earners, stability, skills) are finite differences. One household load, no DB
+    // access per perturbation.
+    @Timed(value = "formula.efs.sensitivity", histogram = true)
+    public Map<String, Object> analyzeSensitivity(Long userId) {
+        HouseholdSnapshot household = householdLoader.load(userId);
+        FinancialProfile fp = household.requireProfile();
+        List<FamilyMember> earners = household.earners();
+
+        double savings = fp.getTotalSavings() != null ? fp.getTotalSavings() : 0;
+        double expenses = fp.getMonthlyExpenses() != null ? fp.getMonthlyExpenses() : 1;
+        double debt = fp.getTotalDebt() != null ? fp.getTotalDebt() : 0;
+        int earnerCount = earners.size();
+        int dependents = household.members().size() - earnerCount;
+
+        double stabilitySum = 0;
+        double minStability = Double.MAX_VALUE;
+        long totalSkills = 0;
+        for (FamilyMember e : earners) {
+            double v = getStabilityValue(e.getIncomeStability());
+            stabilitySum += v;
+            minStability = Math.min(minStability, v);
+            totalSkills += e.getSkillIds() != null
+                ? SkillCatalog.count(e.getSkillIds()) : SkillCatalog.countText(e.getSkills());
+        }
+        // Same no-earner default as the ISF term
+        double avgStability = earnerCount > 0 ? stabilitySum / earnerCount : 0.4;
+
+        double raw = rawAt(savings, expenses, earnerCount, dependents, stabilitySum);
+        double base = Math.max(0, Math.min(raw, 2.0));
+        // Outside 0-2 the clamp flattens every partial derivative to zero
+        boolean inside = raw > 0 && raw < 2.0;
+        // With no expenses the buffer term has no slope (and the analytic forms divide by zero)
+        boolean hasExpenses = expenses > 0;
+        boolean bufferCapped = bufferRatio(savings, expenses) >= 2.0;
+
+        List<Map<String, Object>> inputs = new ArrayList<>();
+
+        double dSavings = inside && hasExpenses && !bufferCapped ? 0.4 / expenses : 0;
+        inputs.add(sensitivity("savings", "analytic",
+            "+1 month of expenses (₹" + Math.round(expenses) + ")", dSavings * 1000,
+            base, efsAt(savings + expenses, expenses, earnerCount, dependents, stabilitySum)));
+
+        double dExpenses = inside && hasExpenses && !bufferCapped ? -0.4 * savings / (expenses * expenses) : 0;
+        inputs.add(sensitivity("expenses", "analytic",
+            "-10% monthly expenses (₹" + Math.round(expenses * 0.1) + ")", dExpenses * 1000,
+            base, efsAt(savings, expenses * 0.9, earnerCount, dependents, stabilitySum)));
+
+        // Debt does not enter the EFS formula; reported so the zero is explicit
+        inputs.add(sensitivity("debt", "analytic",
+            "-10% total debt (₹" + Math.round(debt * 0.1) + ")", 0.0, base, base));
+
+        inputs.add(sensitivity("earnerCount", "finite-difference",
+            "+1 earner at the household's average stability", null,
+            base, efsAt(savings, expenses, earnerCount + 1, dependents, stabilitySum + avgStability)));
+
+        if (dependents > 0) {
+            inputs.add(sensitivity("dependentToEarner", "finite-difference",
+                "one dependent starts earning", null,
+                base, efsAt(savings, expenses, earnerCount + 1, dependents - 1, stabilitySum + avgStability)));
+        }
+
+        if (earnerCount > 0) {
+            // Least stable earner moves up one band: SEASONAL/DAILY_WAGE -> SEMI_STABLE -> STABLE
+            double upgraded = minStability < 0.7 ? 0.7 : 0.9;
+            inputs.add(sensitivity("stabilityMix", "finite-difference",
+                "least stable earner moves up one stability band", null,
+                base, efsAt(savings, expenses, earnerCount, dependents, stabilitySum + upgraded - minStability)));
+        }
+
+        // Skills only feed skillScore, not the EFS weights
+        Map<String, Object> skills = sensitivity("skills", "finite-difference", "+1 skill", null, base, base);
+        skills.put("skillScoreChange", Math.round(
+            (Math.min((totalSkills + 1) / 5.0, 1.0) - Math.min(totalSkills / 5.0, 1.0)) * 100.0) / 100.0);
+        inputs.add(skills);
+
+        inputs.sort((a, b) -> Double.compare((double) b.get("efsChange"), (double) a.get("efsChange")));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("economicFlexibilityScore", Math.round(base * 100.0) / 100.0);
+        result.put("clamped", !inside);
+        result.put("emergencyBufferCapped", bufferCapped);
+        result.put("inputs", inputs);
+        result.put("mostImpactful", (double) inputs.get(0).get("efsChange") > 0 ? inputs.get(0).get("input") : null);
+        return result;
+    }
+
+    // Unclamped EFS from primitive inputs (same formula as scoreEFS, no allocation)
+    static double rawAt(double savings, double expenses, int earnerCount, int dependents, double stabilitySum) {
+        double ebr = bufferRatio(savings, expenses);
+        double ids = Math.min((double) earnerCount / 3, 1.0);
+        double dr = earnerCount > 0 ? (double) dependents / earnerCount : dependents;
+        double isf = earnerCount > 0 ? stabilitySum / earnerCount : 0.4;
+        return rawEFS(ebr, ids, dr, isf);
+    }
+
+    // savings / expenses; a household with savings and no expenses has a full (capped) buffer
+    static double bufferRatio(double savings, double expenses) {
+        if (expenses > 0) return savings / expenses;
+        return savings > 0 ? 2.0 : 0;
+    }
+
+    static double efsAt(double savings, double expenses, int earnerCount, int dependents, double stabilitySum) {
+        return Math.max(0, Math.min(rawAt(savings, expenses, earnerCount, dependents, stabilitySum), 2.0));
+    }
+
+    private static Map<String, Object> sensitivity(String input, String method, String step,
+                                                   Double derivativePer1000, double base, double perturbed) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("input", input);
+        m.put("method", method);
+        m.put("step", step);
+        if (derivativePer1000 != null) m.put("derivativePer1000", Math.round(derivativePer1000 * 10000.0) / 10000.0);
+        m.put("efsChange", Math.round((perturbed - base) * 1000.0) / 1000.0);
+        m.put("newScore", Math.round(perturbed * 100.0) / 100.0);
+        return m;
+    }
 }
@@ -0,0 +1,100 @@
+package com.economic.benchmark;
+
+import com.economic.entity.*;
+import com.economic.service.EfsCache;
+import com.economic.service.FormulaService;
+import com.economic.service.HouseholdLoader;
+import com.economic.service.HouseholdSnapshot;
+import com.economic.service.PercentileIndexService;
+import com.economic.service.SingleFlight;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+// ============================================================
+//   FormulaService benchmarks against an in-memory household
+//   Run: mvn -P benchmark test-compile exec:exec   (ops/s + gc.alloc.rate.norm)
+// ============================================================
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormulaServiceBenchmark {
+
+    @Param({"2", "5", "10"})
+    public int householdSize;
+
+    private static final Long USER_ID = 1L;
+
+    private FormulaService formulaService;
+    private EfsCache efsCache;
+
+    @Setup
+    public void setup() {
+        FinancialProfile fp = BenchmarkSupport.profile();
+        List<FamilyMember> members = BenchmarkSupport.household(householdSize);
+        HouseholdSnapshot household = new HouseholdSnapshot(
+            User.builder().id(USER_ID).username("bench_user").build(), fp, members);
+
+        efsCache = new EfsCache();
+        BenchmarkSupport.inject(efsCache, "maxSize", 10_000);
+        BenchmarkSupport.inject(efsCache, "ttlMs", 300_000L);
+
+        formulaService = new FormulaService();
+        BenchmarkSupport.inject(formulaService, "householdLoader", new HouseholdLoader() {
+            @Override
+            public HouseholdSnapshot load(Long userId) {
+                return household;
+            }
+        });
+        BenchmarkSupport.inject(formulaService, "efsCache", efsCache);
+
+        SingleFlight singleFlight = new SingleFlight();
+        BenchmarkSupport.inject(singleFlight, "stripeCount", 64);
+        singleFlight.init();
+        BenchmarkSupport.inject(formulaService, "singleFlight", singleFlight);
+
+        // Index writes go to MySQL on a background thread; not part of the formula cost
+        BenchmarkSupport.inject(formulaService, "percentileIndex", new PercentileIndexService() {
+            @Override
+            public void record(Long userId, FinancialProfile fp, double efs, double survivalMonths) {
+            }
+        });
+    }
+
+    // Cache miss path: full formula on every call
+    @Benchmark
+    public Map<String, Object> calculateEFSCold() {
+        efsCache.invalidate(USER_ID);
+        return formulaService.calculateEFS(USER_ID);
+    }
+
+    // Dashboard polling path: served from EfsCache
+    @Benchmark
+    public Map<String, Object> calculateEFSWarm() {
+        return formulaService.calculateEFS(USER_ID);
+    }
+
+    @Benchmark
+    public Map<String, Object> simulateShockJobLoss() {
+        return formulaService.simulateShock(USER_ID, "JOB_LOSS", 0);
+    }
+
+    @Benchmark
+    public Map<String, Object> simulateShockMedical() {
+        return formulaService.simulateShock(USER_ID, "MEDICAL_EMERGENCY", 25000);
+    }
+
+    @Benchmark
+    public Map<String, Object> simulateOpportunity() {
+        return formulaService.simulateOpportunity(USER_ID, 15000, 4000, 0.7);
+    }
+
+    @Benchmark
+    public double calculateResilienceScore() {
+        return formulaService.calculateResilienceScore(45000, 18000, 2, 4, 1500, 800);
+    }
+}
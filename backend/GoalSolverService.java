@@ -0,0 +1,258 @@
+package com.economic.service;
+
+import com.economic.entity.*;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+// ============================================================
+//   Inverse Goal Solver
+//   "What must change to reach STRONG (EFS >= 1.0) or N months of
+//   survival?" For each target it returns the smallest change of each
+//   lever on its own, plus the cheapest structural + savings combination
+//   when no single lever gets there. The EFS savings/expense terms and
+//   plain survival months are inverted in closed form; shocked survival
+//   and discrete levers (earners, stability) use bounded search. Everything
+//   runs on one household snapshot.
+// ============================================================
+@Service
+public class GoalSolverService {
+
+    @Autowired private HouseholdLoader householdLoader;
+    @Autowired private FormulaService formulaService;
+
+    public static final double STRONG_EFS = 1.0;
+    public static final double DEFAULT_SURVIVAL_MONTHS = 6.0;
+
+    private static final int BISECTION_STEPS = 60;
+    private static final double MAX_AMOUNT = 1e10;
+
+    @Timed(value = "formula.goal.solve", histogram = true)
+    public Map<String, Object> solve(Long userId, double targetEfs, double targetMonths, List<FormulaService.Shock> shocks) {
+        if (targetEfs <= 0 || targetEfs > 2.0) throw new RuntimeException("targetEfs must be in (0, 2]");
+        if (targetMonths <= 0 || targetMonths > 50) throw new RuntimeException("targetSurvivalMonths must be in (0, 50]");
+
+        HouseholdSnapshot household = householdLoader.load(userId);
+        FinancialProfile fp = household.requireProfile();
+        Household h = new Household(
+            fp.getTotalSavings() != null ? fp.getTotalSavings() : 0,
+            fp.getMonthlyExpenses() != null ? fp.getMonthlyExpenses() : 1,
+            household.totalIncome(),
+            household.earners().size(),
+            household.members().size() - household.earners().size(),
+            household.earners().stream().mapToDouble(e -> formulaService.getStabilityValue(e.getIncomeStability())).sorted().toArray());
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("efs", solveEfs(h, targetEfs));
+        result.put("survival", solveSurvival(h, targetMonths));
+        if (shocks != null && !shocks.isEmpty()) result.put("survivalUnderShock", solveShock(h, targetMonths, shocks));
+        return result;
+    }
+
+    // Stabilities ascending, so upgrades go to the least stable earners first
+    private record Household(double savings, double expenses, double income,
+                             int earners, int dependents, double[] stabilities) {
+        double stabilitySum() {
+            double sum = 0;
+            for (double v : stabilities) sum += v;
+            return sum;
+        }
+    }
+
+    // ==========================================
+    //   TARGET: EFS
+    // ==========================================
+    private Map<String, Object> solveEfs(Household h, double target) {
+        double sum = h.stabilitySum();
+        double current = FormulaService.efsAt(h.savings(), h.expenses(), h.earners(), h.dependents(), sum);
+
+        Map<String, Object> goal = new LinkedHashMap<>();
+        goal.put("target", target);
+        goal.put("current", round2(current));
+        goal.put("met", current >= target);
+        if (current >= target) {
+            goal.put("options", List.of());
+            return goal;
+        }
+
+        List<Map<String, Object>> options = new ArrayList<>();
+
+        // Closed form: raw = 0.4 * min(s / e, 2) + rest, so s / e >= (target - rest) / 0.4 (reachable only if <= 2)
+        double rest = FormulaService.rawAt(0, h.expenses(), h.earners(), h.dependents(), sum);
+        double neededRatio = (target - rest) / 0.4;
+        if (neededRatio <= 2.0) {
+            double needSavings = neededRatio * h.expenses();
+            options.add(option("increaseSavings", "analytic",
+                Map.of("totalSavings", round2(needSavings), "increaseBy", round2(needSavings - h.savings()))));
+            if (h.savings() > 0 && neededRatio > 0) {
+                double maxExpenses = h.savings() / neededRatio;
+                options.add(option("reduceExpenses", "analytic",
+                    Map.of("monthlyExpenses", round2(maxExpenses), "reduceBy", round2(h.expenses() - maxExpenses),
+                           "reducePercent", round2((1 - maxExpenses / h.expenses()) * 100))));
+            }
+        }
+
+        // Discrete levers: fewest dependents who start earning / earners moving up a stability band
+        double avg = h.earners() > 0 ? sum / h.earners() : 0.4;
+        for (int k = 1; k <= h.dependents(); k++) {
+            if (FormulaService.efsAt(h.savings(), h.expenses(), h.earners() + k, h.dependents() - k, sum + k * avg) >= target) {
+                options.add(option("dependentsStartEarning", "search", Map.of("count", k)));
+                break;
+            }
+        }
+        int upgrades = minUpgrades(h, target);
+        if (upgrades > 0) options.add(option("improveIncomeStability", "search", Map.of("earnersUpgraded", upgrades)));
+
+        // Nothing works alone: smallest structural change that makes the savings inversion feasible
+        if (options.isEmpty()) {
+            Map<String, Object> combined = combined(h, target);
+            if (combined != null) options.add(combined);
+        }
+
+        goal.put("options", options);
+        if (options.isEmpty()) goal.put("message", "Target is not reachable by changing savings, expenses, earners or stability");
+        return goal;
+    }
+
+    // Each upgrade moves the least stable remaining earner one band up (0.4 -> 0.7 -> 0.9)
+    private int minUpgrades(Household h, double target) {
+        double[] v = h.stabilities().clone();
+        double sum = h.stabilitySum();
+        for (int u = 1; u <= 2 * v.length; u++) {
+            int i = 0;
+            for (int j = 1; j < v.length; j++) if (v[j] < v[i]) i = j;
+            if (v[i] >= 0.9) return -1;
+            double next = v[i] < 0.7 ? 0.7 : 0.9;
+            sum += next - v[i];
+            v[i] = next;
+            if (FormulaService.efsAt(h.savings(), h.expenses(), h.earners(), h.dependents(), sum) >= target) return u;
+        }
+        return -1;
+    }
+
+    private Map<String, Object> combined(Household h, double target) {
+        double avg = h.earners() > 0 ? h.stabilitySum() / h.earners() : 0.4;
+        for (int k = 0; k <= h.dependents() + 3; k++) {
+            // First k dependents start earning, then new earners join the household
+            int converted = Math.min(k, h.dependents());
+            int earners = h.earners() + k;
+            int dependents = h.dependents() - converted;
+            double sum = h.stabilitySum() + k * avg;
+            double rest = FormulaService.rawAt(0, h.expenses(), earners, dependents, sum);
+            double neededRatio = (target - rest) / 0.4;
+            if (neededRatio > 2.0) continue;
+            double needSavings = Math.max(neededRatio * h.expenses(), h.savings());
+            Map<String, Object> changes = new LinkedHashMap<>();
+            if (converted > 0) changes.put("dependentsStartEarning", converted);
+            if (k > converted) changes.put("newEarners", k - converted);
+            changes.put("totalSavings", round2(needSavings));
+            changes.put("increaseBy", round2(needSavings - h.savings()));
+            return option("combined", "search", changes);
+        }
+        return null;
+    }
+
+    // ==========================================
+    //   TARGET: SURVIVAL MONTHS (savings / expenses)
+    // ==========================================
+    private Map<String, Object> solveSurvival(Household h, double target) {
+        double current = h.expenses() > 0 ? h.savings() / h.expenses() : 0;
+        Map<String, Object> goal = new LinkedHashMap<>();
+        goal.put("target", target);
+        goal.put("current", round1(current));
+        goal.put("met", current >= target);
+        List<Map<String, Object>> options = new ArrayList<>();
+        if (current < target) {
+            double needSavings = target * h.expenses();
+            options.add(option("increaseSavings", "analytic",
+                Map.of("totalSavings", round2(needSavings), "increaseBy", round2(needSavings - h.savings()))));
+            if (h.savings() > 0) {
+                double maxExpenses = h.savings() / target;
+                options.add(option("reduceExpenses", "analytic",
+                    Map.of("monthlyExpenses", round2(maxExpenses), "reduceBy", round2(h.expenses() - maxExpenses),
+                           "reducePercent", round2((1 - maxExpenses / h.expenses()) * 100))));
+            }
+        }
+        goal.put("options", options);
+        return goal;
+    }
+
+    // ==========================================
+    //   TARGET: SURVIVAL UNDER A SHOCK (bisection on each lever)
+    // ==========================================
+    private Map<String, Object> solveShock(Household h, double target, List<FormulaService.Shock> shocks) {
+        FormulaService.Shocked base = FormulaService.applyShocks(h.income(), h.expenses(), h.savings(), shocks);
+        double current = base.survivalMonths();
+
+        Map<String, Object> goal = new LinkedHashMap<>();
+        goal.put("shockType", base.description());
+        goal.put("target", target);
+        goal.put("current", current > 50 ? "Stable" : round1(current));
+        goal.put("met", current >= target);
+        List<Map<String, Object>> options = new ArrayList<>();
+        if (current < target) {
+            Double savings = minIncrease(d -> survival(h.income(), h.expenses(), h.savings() + d, shocks), target);
+            if (savings != null) options.add(option("increaseSavings", "search",
+                Map.of("totalSavings", round2(h.savings() + savings), "increaseBy", round2(savings))));
+
+            Double cut = minIncrease(d -> survival(h.income(), h.expenses() - d, h.savings(), shocks), target, h.expenses());
+            if (cut != null) options.add(option("reduceExpenses", "search",
+                Map.of("monthlyExpenses", round2(h.expenses() - cut), "reduceBy", round2(cut),
+                       "reducePercent", round2(cut / h.expenses() * 100))));
+
+            Double income = minIncrease(d -> survival(h.income() + d, h.expenses(), h.savings(), shocks), target);
+            if (income != null) options.add(option("increaseIncome", "search",
+                Map.of("monthlyIncome", round2(h.income() + income), "increaseBy", round2(income))));
+        }
+        goal.put("options", options);
+        if (current < target && options.isEmpty()) goal.put("message", "Target is not reachable under this shock");
+        return goal;
+    }
+
+    private static double survival(double income, double expenses, double savings, List<FormulaService.Shock> shocks) {
+        return FormulaService.applyShocks(income, expenses, savings, shocks).survivalMonths();
+    }
+
+    private interface Lever {
+        double survivalAfter(double delta);
+    }
+
+    private static Double minIncrease(Lever lever, double target) {
+        return minIncrease(lever, target, MAX_AMOUNT);
+    }
+
+    // Smallest delta in [0, max] with survival >= target (survival is non-decreasing in delta), or null
+    private static Double minIncrease(Lever lever, double target, double max) {
+        double hi = Math.min(1000, max);
+        while (lever.survivalAfter(hi) < target) {
+            if (hi >= max) return null;
+            hi = Math.min(hi * 2, max);
+        }
+        double lo = 0;
+        for (int i = 0; i < BISECTION_STEPS && hi - lo > 0.5; i++) {
+            double mid = (lo + hi) / 2;
+            if (lever.survivalAfter(mid) >= target) hi = mid;
+            else lo = mid;
+        }
+        // Whole rupees, but never past the bound (e.g. cutting more than non-integer expenses)
+        return Math.min(Math.ceil(hi), max);
+    }
+
+    private static Map<String, Object> option(String lever, String method, Map<String, Object> changes) {
+        Map<String, Object> o = new LinkedHashMap<>();
+        o.put("lever", lever);
+        o.put("method", method);
+        o.put("changes", changes);
+        return o;
+    }
+
+    private static double round1(double v) {
+        return Math.round(v * 10.0) / 10.0;
+    }
+
+    private static double round2(double v) {
+        return Math.round(v * 100.0) / 100.0;
+    }
+}
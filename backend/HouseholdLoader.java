@@ -0,0 +1,45 @@
+package com.economic.service;
+
+import com.economic.entity.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+// ============================================================
+//   Household Aggregate Loader
+//   One SQL statement: users LEFT JOIN financial_profiles LEFT JOIN
+//   family_members for a single user id.
+// ============================================================
+@Service
+public class HouseholdLoader {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private static final String HOUSEHOLD_JPQL =
+        "SELECT u, fp, m FROM User u " +
+        "LEFT JOIN FinancialProfile fp ON fp.user.id = u.id " +
+        "LEFT JOIN FamilyMember m ON m.user.id = u.id " +
+        "WHERE u.id = :userId ORDER BY m.id";
+
+    @Transactional(readOnly = true)
+    public HouseholdSnapshot load(Long userId) {
+        List<Object[]> rows = entityManager.createQuery(HOUSEHOLD_JPQL, Object[].class)
+            .setParameter("userId", userId)
+            .setHint(HibernateHints.HINT_CACHEABLE, true) // served from the L2 query cache until one of the three tables changes
+            .getResultList();
+        if (rows.isEmpty()) throw new RuntimeException("User not found");
+
+        User user = (User) rows.get(0)[0];
+        FinancialProfile fp = (FinancialProfile) rows.get(0)[1];
+        List<FamilyMember> members = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            if (row[2] != null) members.add((FamilyMember) row[2]);
+        }
+        return new HouseholdSnapshot(user, fp, members);
+    }
+}
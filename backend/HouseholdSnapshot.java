@@ -0,0 +1,38 @@
+package com.economic.service;
+
+import com.economic.entity.*;
+
+import java.util.List;
+
+// ============================================================
+//   Immutable view of one household, loaded in a single round trip by
+//   HouseholdLoader. All formula paths (EFS, shocks, opportunities) and
+//   the profile endpoint compute from this instead of querying again.
+// ============================================================
+public record HouseholdSnapshot(User user, FinancialProfile profile,
+                                List<FamilyMember> members, List<FamilyMember> earners,
+                                double totalIncome) {
+
+    public HouseholdSnapshot(User user, FinancialProfile profile, List<FamilyMember> members) {
+        this(user, profile, List.copyOf(members),
+             members.stream().filter(m -> Boolean.TRUE.equals(m.getIsEarner())).toList(),
+             members.stream()
+                 .filter(m -> Boolean.TRUE.equals(m.getIsEarner()))
+                 .mapToDouble(m -> m.getMonthlyIncome() != null ? m.getMonthlyIncome() : 0)
+                 .sum());
+    }
+
+    public Long userId() {
+        return user.getId();
+    }
+
+    public boolean hasProfile() {
+        return profile != null;
+    }
+
+    // Formula paths need a financial profile; same message as before
+    public FinancialProfile requireProfile() {
+        if (profile == null) throw new RuntimeException("Financial profile not found");
+        return profile;
+    }
+}
@@ -1,5 +1,8 @@
 package com.economic.security;
 
+import com.economic.repository.UserRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -7,7 +10,6 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -21,7 +23,10 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     private JwtUtil jwtUtil;
 
     @Autowired
-    private UserDetailsService userDetailsService;
+    private JwtTokenCache tokenCache;
+
+    @Autowired
+    private UserRepository userRepository;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -29,23 +34,15 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                                     FilterChain filterChain) throws ServletException, IOException {
 
         String authHeader = request.getHeader("Authorization");
-        String token = null;
-        String username = null;
-
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            token = authHeader.substring(7);
-            try {
-                username = jwtUtil.extractUsername(token);
-            } catch (Exception e) {
-                // invalid token
-            }
-        }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            var userDetails = userDetailsService.loadUserByUsername(username);
-            if (jwtUtil.validateToken(token)) {
+        if (authHeader != null && authHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            String token = authHeader.substring(7);
+            AuthPrincipal principal = resolvePrincipal(token);
+
+            if (principal != null) {
                 var authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
+                        principal, null, principal.getAuthorities());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
             }
@@ -53,4 +50,31 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    // One verified parse per unseen token; repeat requests are served from the cache
+    // (public for JwtUtilBenchmark)
+    public AuthPrincipal resolvePrincipal(String token) {
+        AuthPrincipal cached = tokenCache.get(token);
+        if (cached != null) return cached;
+
+        try {
+            Claims claims = jwtUtil.parseClaims(token);
+            Number userId = claims.get(JwtUtil.CLAIM_USER_ID, Number.class);
+            AuthPrincipal principal;
+            if (userId != null) {
+                principal = new AuthPrincipal(userId.longValue(), claims.getSubject(),
+                        claims.get(JwtUtil.CLAIM_ROLE, String.class));
+            } else {
+                // Tokens issued before uid/role claims existed: one lookup, then cached
+                principal = userRepository.findByUsername(claims.getSubject())
+                        .map(u -> new AuthPrincipal(u.getId(), u.getUsername(), u.getRole()))
+                        .orElse(null);
+                if (principal == null) return null;
+            }
+            tokenCache.put(token, principal, claims.getExpiration());
+            return principal;
+        } catch (JwtException | IllegalArgumentException e) {
+            return null; // invalid token
+        }
+    }
 }
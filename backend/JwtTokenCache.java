@@ -0,0 +1,42 @@
+package com.economic.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+// ============================================================
+//   Verified Token Cache
+//   Bounded LRU of already-verified tokens -> principal. An entry lives
+//   no longer than the token's own exp claim.
+// ============================================================
+@Component
+public class JwtTokenCache {
+
+    @Value("${jwt.cache.max-size:10000}")
+    private int maxSize;
+
+    private record Entry(AuthPrincipal principal, long expiresAt) {}
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > maxSize;
+        }
+    };
+
+    public synchronized AuthPrincipal get(String token) {
+        Entry e = entries.get(token);
+        if (e == null) return null;
+        if (e.expiresAt() <= System.currentTimeMillis()) {
+            entries.remove(token);
+            return null;
+        }
+        return e.principal();
+    }
+
+    public synchronized void put(String token, AuthPrincipal principal, Date expiresAt) {
+        if (expiresAt == null) return; // never cache tokens without an expiry
+        entries.put(token, new Entry(principal, expiresAt.getTime()));
+    }
+}
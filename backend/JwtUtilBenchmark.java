@@ -0,0 +1,56 @@
+package com.economic.benchmark;
+
+import com.economic.security.JwtAuthFilter;
+import com.economic.security.JwtTokenCache;
+import com.economic.security.JwtUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// ============================================================
+//   Per-request auth cost: JWT generation (login) and parsing (every request)
+// ============================================================
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    private JwtUtil jwtUtil;
+    private JwtAuthFilter filter;
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtUtil = new JwtUtil();
+        BenchmarkSupport.inject(jwtUtil, "secret", "mySecretKey12345678901234567890123456789012");
+        BenchmarkSupport.inject(jwtUtil, "expiration", 86_400_000L);
+        jwtUtil.init();
+        token = jwtUtil.generateToken("bench_user", 1L, "FAMILY");
+
+        JwtTokenCache tokenCache = new JwtTokenCache();
+        BenchmarkSupport.inject(tokenCache, "maxSize", 10_000);
+        filter = new JwtAuthFilter();
+        BenchmarkSupport.inject(filter, "jwtUtil", jwtUtil);
+        BenchmarkSupport.inject(filter, "tokenCache", tokenCache);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken("bench_user", 1L, "FAMILY");
+    }
+
+    // Token-cache miss: one verified parse
+    @Benchmark
+    public Object parseClaims() {
+        return jwtUtil.parseClaims(token);
+    }
+
+    // What JwtAuthFilter does per authenticated request (cache hit after the first call)
+    @Benchmark
+    public Object filterPath() {
+        return filter.resolvePrincipal(token);
+    }
+}
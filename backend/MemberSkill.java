@@ -0,0 +1,31 @@
+package com.economic.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// Reverse index skill -> member/household, for "households with skill X" lookups.
+// Written by SkillCatalog alongside FamilyMember.skillIds.
+@Entity
+@Table(name = "member_skills", indexes = {
+    @Index(name = "idx_member_skills_skill_user", columnList = "skill_id, user_id"),
+    @Index(name = "idx_member_skills_member", columnList = "member_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MemberSkill {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "member_id", nullable = false)
+    private Long memberId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "skill_id", nullable = false)
+    private Integer skillId;
+}
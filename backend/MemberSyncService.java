@@ -0,0 +1,122 @@
+package com.economic.service;
+
+import com.economic.entity.*;
+import com.economic.repository.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+
+// ============================================================
+//   Family Member Sync
+//   Diffs the submitted member list against the stored rows and only
+//   inserts, updates or deletes what changed. Rows are matched by id;
+//   id-less rows fall back to an unclaimed stored member with the same
+//   fullName (the setup form does not send ids). The member_skills index
+//   is updated only once the sync has committed.
+// ============================================================
+@Service
+public class MemberSyncService {
+
+    @Autowired private FamilyMemberRepository memberRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private SkillCatalog skillCatalog;
+
+    public record SyncResult(List<FamilyMember> members, List<Long> inserted, List<Long> updated,
+                             List<Long> deleted, int unchanged) {
+        public boolean changed() {
+            return !inserted.isEmpty() || !updated.isEmpty() || !deleted.isEmpty();
+        }
+
+        public Map<String, Object> summary() {
+            Map<String, Object> s = new LinkedHashMap<>();
+            s.put("inserted", inserted);
+            s.put("updated", updated);
+            s.put("deleted", deleted);
+            s.put("unchanged", unchanged);
+            return s;
+        }
+    }
+
+    @Transactional
+    public SyncResult sync(Long userId, List<FamilyMember> incoming) {
+        List<FamilyMember> existing = memberRepository.findByUserId(userId);
+        Map<Long, FamilyMember> byId = new HashMap<>();
+        for (FamilyMember m : existing) byId.put(m.getId(), m);
+
+        Set<Long> claimed = new HashSet<>();
+        List<FamilyMember> result = new ArrayList<>(incoming.size());
+        List<FamilyMember> toInsert = new ArrayList<>();
+        List<Long> updated = new ArrayList<>();
+        List<FamilyMember> skillsChanged = new ArrayList<>();
+        int unchanged = 0;
+
+        for (FamilyMember in : incoming) {
+            FamilyMember match = in.getId() != null ? byId.get(in.getId()) : null;
+            if (match == null && in.getId() == null) match = findByName(existing, claimed, in.getFullName());
+            if (match == null || !claimed.add(match.getId())) {
+                // New row (ids that belong to another household are never trusted)
+                in.setId(null);
+                in.setUser(userRepository.getReferenceById(userId));
+                in.setSkillIds(skillCatalog.encode(in.getSkills()));
+                toInsert.add(in);
+                skillsChanged.add(in);
+                result.add(in);
+                continue;
+            }
+            boolean skillsDiffer = !Objects.equals(match.getSkills(), in.getSkills()) || match.getSkillIds() == null;
+            if (copyIfChanged(in, match)) updated.add(match.getId()); // dirty -> batched UPDATE at flush
+            else unchanged++;
+            if (skillsDiffer) {
+                match.setSkillIds(skillCatalog.encode(match.getSkills()));
+                skillsChanged.add(match);
+            }
+            result.add(match);
+        }
+
+        List<FamilyMember> toDelete = new ArrayList<>();
+        for (FamilyMember m : existing) {
+            if (!claimed.contains(m.getId())) toDelete.add(m);
+        }
+        if (!toDelete.isEmpty()) memberRepository.deleteAllInBatch(toDelete); // single DELETE ... WHERE id IN (...)
+
+        // IDENTITY ids: Hibernate inserts these one by one
+        memberRepository.saveAll(toInsert);
+
+        List<Long> inserted = toInsert.stream().map(FamilyMember::getId).toList();
+        List<Long> deleted = toDelete.stream().map(FamilyMember::getId).toList();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                skillCatalog.updateIndex(userId, deleted, skillsChanged);
+            }
+        });
+        return new SyncResult(result, inserted, updated, deleted, unchanged);
+    }
+
+    private FamilyMember findByName(List<FamilyMember> existing, Set<Long> claimed, String fullName) {
+        if (fullName == null) return null;
+        for (FamilyMember m : existing) {
+            if (!claimed.contains(m.getId()) && fullName.equals(m.getFullName())) return m;
+        }
+        return null;
+    }
+
+    // Copies editable fields from src to target; true if anything differed
+    private boolean copyIfChanged(FamilyMember src, FamilyMember target) {
+        boolean changed = false;
+        if (!Objects.equals(target.getFullName(), src.getFullName())) { target.setFullName(src.getFullName()); changed = true; }
+        if (!Objects.equals(target.getAge(), src.getAge())) { target.setAge(src.getAge()); changed = true; }
+        if (!Objects.equals(target.getGender(), src.getGender())) { target.setGender(src.getGender()); changed = true; }
+        if (!Objects.equals(target.getEducationLevel(), src.getEducationLevel())) { target.setEducationLevel(src.getEducationLevel()); changed = true; }
+        if (!Objects.equals(target.getIsEarner(), src.getIsEarner())) { target.setIsEarner(src.getIsEarner()); changed = true; }
+        if (!Objects.equals(target.getIncomeType(), src.getIncomeType())) { target.setIncomeType(src.getIncomeType()); changed = true; }
+        if (!Objects.equals(target.getMonthlyIncome(), src.getMonthlyIncome())) { target.setMonthlyIncome(src.getMonthlyIncome()); changed = true; }
+        if (!Objects.equals(target.getIncomeStability(), src.getIncomeStability())) { target.setIncomeStability(src.getIncomeStability()); changed = true; }
+        if (!Objects.equals(target.getSkills(), src.getSkills())) { target.setSkills(src.getSkills()); changed = true; }
+        return changed;
+    }
+}
@@ -0,0 +1,19 @@
+package com.economic.metrics;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Hibernate session statistics (hibernate_*) are bound by Spring Boot's
+// HibernateMetricsAutoConfiguration once hibernate-micrometer is on the classpath
+// (needs hibernate.generate_statistics=true).
+@Configuration
+public class MetricsConfig {
+
+    // Enables @Timed on FormulaService and other beans
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+}
@@ -0,0 +1,175 @@
+package com.economic.service;
+
+import com.economic.entity.*;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+// ============================================================
+//   Monte Carlo Shock Simulation
+//   Runs many stochastic month-by-month savings paths per household.
+//   Earner income is drawn around monthlyIncome with a volatility that
+//   depends on incomeStability; shocks arrive at random each month.
+// ============================================================
+@Service
+public class MonteCarloService {
+
+    @Autowired private HouseholdLoader householdLoader;
+
+    public static final int MAX_PATHS = 100_000;
+    public static final int MAX_MONTHS = 60;
+    // Months of expenses per shock (before the 0.5x - 1.5x draw)
+    public static final double MAX_SHOCK_SEVERITY = 24;
+
+    // Paths per parallel task; each task owns its own RNG and slice of the arrays
+    private static final int CHUNK = 1024;
+
+    private static final double[] PERCENTILES = {0.05, 0.25, 0.50, 0.75, 0.95};
+
+    // ==========================================
+    //   INCOME VOLATILITY PER STABILITY (monthly std-dev as share of income)
+    // ==========================================
+    public double getVolatility(String stability) {
+        if (stability == null) return 0.35;
+        return switch (stability.toUpperCase()) {
+            case "STABLE" -> 0.05;
+            case "SEMI_STABLE" -> 0.15;
+            default -> 0.35; // SEASONAL / DAILY_WAGE
+        };
+    }
+
+    // Chance an earner earns nothing at all in a given month
+    public double getZeroIncomeChance(String stability) {
+        if (stability == null) return 0.15;
+        return switch (stability.toUpperCase()) {
+            case "STABLE" -> 0.01;
+            case "SEMI_STABLE" -> 0.04;
+            default -> 0.15;
+        };
+    }
+
+    @Timed(value = "formula.shock.montecarlo", histogram = true)
+    public Map<String, Object> simulate(Long userId, int paths, int months,
+                                        double shockProbability, double shockSeverity, long seed) {
+        HouseholdSnapshot household = householdLoader.load(userId);
+        FinancialProfile fp = household.requireProfile();
+        List<FamilyMember> earners = household.earners();
+
+        int n = earners.size();
+        double[] income = new double[n];
+        double[] vol = new double[n];
+        double[] zeroChance = new double[n];
+        for (int i = 0; i < n; i++) {
+            FamilyMember e = earners.get(i);
+            income[i] = e.getMonthlyIncome() != null ? e.getMonthlyIncome() : 0;
+            vol[i] = getVolatility(e.getIncomeStability());
+            zeroChance[i] = getZeroIncomeChance(e.getIncomeStability());
+        }
+        double expenses = fp.getMonthlyExpenses() != null ? fp.getMonthlyExpenses() : 0;
+        double savings = fp.getTotalSavings() != null ? fp.getTotalSavings() : 0;
+
+        return run(income, vol, zeroChance, expenses, savings, paths, months, shockProbability, shockSeverity, seed);
+    }
+
+    // Pure in-memory engine, separated from the repositories so it can be benchmarked
+    public Map<String, Object> run(double[] income, double[] vol, double[] zeroChance,
+                                   double expenses, double startSavings,
+                                   int paths, int months,
+                                   double shockProbability, double shockSeverity, long seed) {
+        if (paths < 1 || paths > MAX_PATHS) throw new RuntimeException("paths must be between 1 and " + MAX_PATHS);
+        if (months < 1 || months > MAX_MONTHS) throw new RuntimeException("months must be between 1 and " + MAX_MONTHS);
+        if (!(shockProbability >= 0 && shockProbability <= 1)) throw new RuntimeException("shockProbability must be between 0 and 1");
+        if (!(shockSeverity >= 0 && shockSeverity <= MAX_SHOCK_SEVERITY)) {
+            throw new RuntimeException("shockSeverity must be between 0 and " + MAX_SHOCK_SEVERITY);
+        }
+
+        long start = System.nanoTime();
+        int n = income.length;
+
+        // Month-major: only the current savings of every path and one sorted column are held,
+        // so memory is O(paths) whatever the horizon (2 x 800 KB at MAX_PATHS)
+        double[] savings = new double[paths];
+        Arrays.fill(savings, startSavings);
+        double[] column = new double[paths];
+        // failMonth[p] = first month savings went negative, or months+1 if it never did
+        int[] failMonth = new int[paths];
+        Arrays.fill(failMonth, months + 1);
+        double[][] bands = new double[PERCENTILES.length][months];
+
+        // Each chunk keeps its own RNG across months, so a seed still reproduces the same run
+        int chunks = (paths + CHUNK - 1) / CHUNK;
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] rngs = new SplittableRandom[chunks];
+        for (int c = 0; c < chunks; c++) rngs[c] = root.split();
+
+        for (int m = 0; m < months; m++) {
+            int month = m + 1;
+            IntStream.range(0, chunks).parallel().forEach(c -> {
+                SplittableRandom rng = rngs[c];
+                int from = c * CHUNK;
+                int to = Math.min(from + CHUNK, paths);
+                for (int p = from; p < to; p++) {
+                    double monthIncome = 0;
+                    for (int i = 0; i < n; i++) {
+                        if (rng.nextDouble() < zeroChance[i]) continue;
+                        monthIncome += Math.max(0, income[i] * (1 + vol[i] * rng.nextGaussian()));
+                    }
+                    double shock = 0;
+                    if (rng.nextDouble() < shockProbability) {
+                        // Shock costs 0.5x - 1.5x of shockSeverity months of expenses
+                        shock = expenses * shockSeverity * (0.5 + rng.nextDouble());
+                    }
+                    double s = savings[p] + monthIncome - expenses - shock;
+                    if (s < 0 && failMonth[p] > months) failMonth[p] = month;
+                    savings[p] = s;
+                }
+            });
+
+            // Percentile bands of savings for this month
+            System.arraycopy(savings, 0, column, 0, paths);
+            Arrays.parallelSort(column);
+            for (int k = 0; k < PERCENTILES.length; k++) {
+                int idx = (int) Math.min(paths - 1, Math.floor(PERCENTILES[k] * paths));
+                bands[k][m] = Math.round(column[idx] * 100.0) / 100.0;
+            }
+        }
+
+        // Survival curve: share of paths still solvent at the end of each month
+        int[] failuresAt = new int[months + 2];
+        for (int p = 0; p < paths; p++) failuresAt[failMonth[p]]++;
+        double[] survival = new double[months];
+        int alive = paths;
+        for (int m = 1; m <= months; m++) {
+            alive -= failuresAt[m];
+            survival[m - 1] = Math.round((double) alive / paths * 1000.0) / 1000.0;
+        }
+
+        double ruinProbability = 1.0 - survival[months - 1];
+        String riskLevel;
+        if (ruinProbability > 0.5) riskLevel = "HIGH";
+        else if (ruinProbability > 0.2) riskLevel = "MEDIUM";
+        else riskLevel = "LOW";
+
+        Map<String, Object> percentileBands = new LinkedHashMap<>();
+        percentileBands.put("p5", bands[0]);
+        percentileBands.put("p25", bands[1]);
+        percentileBands.put("p50", bands[2]);
+        percentileBands.put("p75", bands[3]);
+        percentileBands.put("p95", bands[4]);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("paths", paths);
+        result.put("months", months);
+        result.put("shockProbability", shockProbability);
+        result.put("seed", seed);
+        result.put("survivalProbability", survival);
+        result.put("savingsPercentiles", percentileBands);
+        result.put("ruinProbability", Math.round(ruinProbability * 1000.0) / 1000.0);
+        result.put("riskLevel", riskLevel);
+        result.put("elapsedMs", Math.round((System.nanoTime() - start) / 10_000.0) / 100.0);
+        return result;
+    }
+}
@@ -0,0 +1,230 @@
+package com.economic.service;
+
+import com.economic.entity.*;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+// ============================================================
+//   Opportunity Portfolio Optimizer
+//   Picks the subset of candidate opportunities that maximizes expected
+//   monthly income gain (successProbability x expectedIncomeIncrease) while
+//   total investment stays within savings and post-investment survival
+//   months stay above a floor. 0/1 knapsack solved by branch-and-bound with
+//   a fractional upper bound; the top of the tree is explored in parallel.
+// ============================================================
+@Service
+public class OpportunityOptimizerService {
+
+    @Autowired private HouseholdLoader householdLoader;
+
+    public static final int MAX_CANDIDATES = 200;
+
+    // Tree levels that fork new tasks; below this each task searches sequentially
+    private static final int PARALLEL_DEPTH = 10;
+    // Node budget so very large / adversarial inputs still answer interactively
+    private static final long MAX_NODES = 20_000_000L;
+
+    public record Candidate(String name, double investmentCost, double expectedIncomeIncrease, double successProbability) {
+        double expectedGain() {
+            return successProbability * expectedIncomeIncrease;
+        }
+    }
+
+    @Timed(value = "formula.opportunity.optimize", histogram = true)
+    public Map<String, Object> optimize(Long userId, List<Candidate> candidates, double minSurvivalMonths) {
+        HouseholdSnapshot household = householdLoader.load(userId);
+        FinancialProfile fp = household.requireProfile();
+
+        double currentIncome = household.totalIncome();
+        double expenses = fp.getMonthlyExpenses() != null ? fp.getMonthlyExpenses() : 0;
+        double savings = fp.getTotalSavings() != null ? fp.getTotalSavings() : 0;
+
+        return optimize(candidates, currentIncome, expenses, savings, minSurvivalMonths);
+    }
+
+    // Pure in-memory optimizer over an already-loaded household
+    public Map<String, Object> optimize(List<Candidate> candidates, double currentIncome,
+                                        double expenses, double savings, double minSurvivalMonths) {
+        if (candidates.size() > MAX_CANDIDATES) throw new RuntimeException("At most " + MAX_CANDIDATES + " candidates");
+        if (!(minSurvivalMonths >= 0) || Double.isInfinite(minSurvivalMonths)) {
+            throw new RuntimeException("minSurvivalMonths must be a non-negative number");
+        }
+        for (Candidate c : candidates) validate(c);
+        long start = System.nanoTime();
+
+        // Both constraints collapse into one budget: cost <= savings and (savings - cost) / expenses >= floor
+        double budget = Math.min(savings, savings - minSurvivalMonths * expenses);
+
+        // Keep only candidates that can help; sort by gain per rupee for the fractional bound
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            Candidate c = candidates.get(i);
+            if (c.expectedGain() > 0 && c.investmentCost() <= budget) order.add(i);
+        }
+        order.sort((a, b) -> Double.compare(ratio(candidates.get(b)), ratio(candidates.get(a))));
+
+        int n = order.size();
+        double[] cost = new double[n];
+        double[] gain = new double[n];
+        for (int k = 0; k < n; k++) {
+            Candidate c = candidates.get(order.get(k));
+            cost[k] = c.investmentCost();
+            gain[k] = c.expectedGain();
+        }
+
+        Search search = new Search(cost, gain);
+        if (budget >= 0 && n > 0) {
+            ForkJoinPool.commonPool().invoke(search.new Node(0, budget, 0, new boolean[n]));
+        }
+
+        List<Map<String, Object>> selected = new ArrayList<>();
+        double totalCost = 0;
+        double totalGain = 0;
+        for (int k = 0; k < n; k++) {
+            if (!search.bestTaken[k]) continue;
+            Candidate c = candidates.get(order.get(k));
+            totalCost += c.investmentCost();
+            totalGain += c.expectedGain();
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("name", c.name());
+            item.put("investmentCost", c.investmentCost());
+            item.put("expectedMonthlyGain", Math.round(c.expectedGain() * 100.0) / 100.0);
+            selected.add(item);
+        }
+
+        double savingsAfter = savings - totalCost;
+        double survivalAfter = expenses > 0 ? Math.max(savingsAfter, 0) / expenses : 0;
+        double breakEvenMonths = totalGain > 0 ? totalCost / totalGain : 0;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("candidates", candidates.size());
+        result.put("feasibleCandidates", n);
+        result.put("selected", selected);
+        result.put("totalInvestment", Math.round(totalCost * 100.0) / 100.0);
+        result.put("expectedMonthlyGain", Math.round(totalGain * 100.0) / 100.0);
+        result.put("currentIncome", currentIncome);
+        result.put("newExpectedIncome", Math.round((currentIncome + totalGain) * 100.0) / 100.0);
+        result.put("savingsAfterInvestment", Math.round(savingsAfter * 100.0) / 100.0);
+        result.put("survivalAfterInvestment", Math.round(survivalAfter * 10.0) / 10.0);
+        result.put("minSurvivalMonths", minSurvivalMonths);
+        result.put("breakEvenMonths", Math.round(breakEvenMonths * 10.0) / 10.0);
+        result.put("optimal", search.nodes.sum() < MAX_NODES);
+        result.put("nodesExplored", search.nodes.sum());
+        result.put("elapsedMs", Math.round((System.nanoTime() - start) / 10_000.0) / 100.0);
+        return result;
+    }
+
+    // NaN fails every comparison below, so it is rejected along with out-of-range values
+    private static void validate(Candidate c) {
+        if (!(c.investmentCost() >= 0) || Double.isInfinite(c.investmentCost())) {
+            throw new RuntimeException(c.name() + ": investmentCost must be a non-negative number");
+        }
+        if (!(c.expectedIncomeIncrease() >= 0) || Double.isInfinite(c.expectedIncomeIncrease())) {
+            throw new RuntimeException(c.name() + ": expectedIncomeIncrease must be a non-negative number");
+        }
+        if (!(c.successProbability() >= 0 && c.successProbability() <= 1)) {
+            throw new RuntimeException(c.name() + ": successProbability must be between 0 and 1");
+        }
+    }
+
+    private static double ratio(Candidate c) {
+        return c.investmentCost() > 0 ? c.expectedGain() / c.investmentCost() : Double.MAX_VALUE;
+    }
+
+    // ==========================================
+    //   BRANCH AND BOUND
+    // ==========================================
+    private static final class Search {
+        final double[] cost;
+        final double[] gain;
+        final LongAdder nodes = new LongAdder();
+
+        // Incumbent; read without lock for pruning, replaced under lock
+        volatile double bestGain = 0;
+        boolean[] bestTaken;
+
+        Search(double[] cost, double[] gain) {
+            this.cost = cost;
+            this.gain = gain;
+            this.bestTaken = new boolean[cost.length];
+        }
+
+        synchronized void offer(double value, boolean[] taken) {
+            if (value > bestGain) {
+                bestGain = value;
+                bestTaken = taken.clone();
+            }
+        }
+
+        // Greedy fractional relaxation from item k onward (items sorted by ratio)
+        double upperBound(int k, double capacity, double value) {
+            for (int i = k; i < cost.length; i++) {
+                if (cost[i] <= capacity) {
+                    capacity -= cost[i];
+                    value += gain[i];
+                } else {
+                    return value + gain[i] * (capacity / cost[i]);
+                }
+            }
+            return value;
+        }
+
+        void dfs(int k, double capacity, double value, boolean[] taken) {
+            nodes.increment();
+            if (value > bestGain) offer(value, taken);
+            if (k == cost.length || nodes.sum() >= MAX_NODES) return;
+            if (upperBound(k, capacity, value) <= bestGain) return;
+
+            if (cost[k] <= capacity) {
+                taken[k] = true;
+                dfs(k + 1, capacity - cost[k], value + gain[k], taken);
+                taken[k] = false;
+            }
+            dfs(k + 1, capacity, value, taken);
+        }
+
+        final class Node extends RecursiveAction {
+            private static final long serialVersionUID = 1L;
+
+            final int k;
+            final double capacity;
+            final double value;
+            final boolean[] taken;
+
+            Node(int k, double capacity, double value, boolean[] taken) {
+                this.k = k;
+                this.capacity = capacity;
+                this.value = value;
+                this.taken = taken;
+            }
+
+            @Override
+            protected void compute() {
+                if (k >= PARALLEL_DEPTH || k == cost.length) {
+                    dfs(k, capacity, value, taken);
+                    return;
+                }
+                nodes.increment();
+                if (value > bestGain) offer(value, taken);
+                if (upperBound(k, capacity, value) <= bestGain) return;
+
+                // "Take" branch first: it follows the greedy order and finds good incumbents early
+                Node skip = new Node(k + 1, capacity, value, taken.clone());
+                if (cost[k] <= capacity) {
+                    boolean[] withK = taken.clone();
+                    withK[k] = true;
+                    Node take = new Node(k + 1, capacity - cost[k], value + gain[k], withK);
+                    invokeAll(take, skip);
+                } else {
+                    skip.compute();
+                }
+            }
+        }
+    }
+}
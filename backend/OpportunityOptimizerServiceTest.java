@@ -0,0 +1,74 @@
+package com.economic.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// ============================================================
+//   Branch-and-bound optimizer vs exhaustive search
+//   Random instances small enough to enumerate every subset; the
+//   optimizer must find the same best expected gain within the budget.
+// ============================================================
+class OpportunityOptimizerServiceTest {
+
+    private final OpportunityOptimizerService optimizer = new OpportunityOptimizerService();
+
+    @Test
+    void matchesBruteForceOnRandomInstances() {
+        SplittableRandom rng = new SplittableRandom(42);
+        for (int instance = 0; instance < 25; instance++) {
+            int n = 12 + rng.nextInt(7); // up to 18 items: 2^18 subsets
+            List<OpportunityOptimizerService.Candidate> candidates = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                candidates.add(new OpportunityOptimizerService.Candidate("c" + i,
+                    Math.round(rng.nextDouble(500, 20_000)),
+                    Math.round(rng.nextDouble(0, 5_000)),
+                    Math.round(rng.nextDouble() * 100) / 100.0));
+            }
+            double expenses = Math.round(rng.nextDouble(5_000, 30_000));
+            double savings = Math.round(rng.nextDouble(20_000, 150_000));
+            double minSurvival = rng.nextInt(4);
+
+            Map<String, Object> result = optimizer.optimize(candidates, 20_000, expenses, savings, minSurvival);
+
+            assertEquals(true, result.get("optimal"), "instance " + instance);
+            double budget = Math.min(savings, savings - minSurvival * expenses);
+            double expected = bruteForce(candidates, budget);
+            assertEquals(expected, (double) result.get("expectedMonthlyGain"), 0.011, "instance " + instance);
+            assertTrue((double) result.get("totalInvestment") <= Math.max(budget, 0) + 1e-6,
+                "instance " + instance + " over budget");
+        }
+    }
+
+    @Test
+    void rejectsNegativeCost() {
+        List<OpportunityOptimizerService.Candidate> candidates = List.of(
+            new OpportunityOptimizerService.Candidate("refund", -5_000, 1_000, 0.5));
+        assertThrows(RuntimeException.class, () -> optimizer.optimize(candidates, 20_000, 10_000, 50_000, 0));
+    }
+
+    @Test
+    void rejectsProbabilityOutsideUnitInterval() {
+        List<OpportunityOptimizerService.Candidate> candidates = List.of(
+            new OpportunityOptimizerService.Candidate("sure thing", 1_000, 1_000, 1.5));
+        assertThrows(RuntimeException.class, () -> optimizer.optimize(candidates, 20_000, 10_000, 50_000, 0));
+    }
+
+    private static double bruteForce(List<OpportunityOptimizerService.Candidate> candidates, double budget) {
+        int n = candidates.size();
+        double best = 0;
+        for (int mask = 0; mask < 1 << n; mask++) {
+            double cost = 0;
+            double gain = 0;
+            for (int i = 0; i < n; i++) {
+                if ((mask & 1 << i) == 0) continue;
+                cost += candidates.get(i).investmentCost();
+                gain += candidates.get(i).expectedGain();
+            }
+            if (cost <= budget && gain > best) best = gain;
+        }
+        return Math.round(best * 100.0) / 100.0;
+    }
+}
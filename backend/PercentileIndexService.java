@@ -0,0 +1,297 @@
+package com.economic.service;
+
+import com.economic.entity.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// ============================================================
+//   Population Percentile Index
+//   EFS and survival-months QuantileSketches per region (pincode district,
+//   city, state, all), held in memory and persisted in population_sketches.
+//   A household's percentile is read from its region's sketch in constant
+//   time. Scores are folded in incrementally whenever calculateEFS computes
+//   one (the previous contribution, kept in population_index_entries, is
+//   removed first); the nightly batch rebuilds every sketch by merging
+//   per-chunk sketches. All writes run on one background thread so the
+//   request path never waits on index SQL; updates are coalesced per user
+//   (latest score wins), so the queue is bounded by active households.
+//   While a rebuild is running, incremental updates are held back and
+//   replayed against the rebuilt index once it is swapped in.
+// ============================================================
+@Service
+public class PercentileIndexService {
+
+    private static final Logger log = LoggerFactory.getLogger(PercentileIndexService.class);
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private TransactionTemplate transactionTemplate;
+
+    // Below this many households a region's percentile is not reported
+    public static final int MIN_HOUSEHOLDS = 5;
+
+    public static final String ALL = "all";
+
+    private static final String UPSERT_SKETCH_SQL =
+        "INSERT INTO population_sketches (region_key, households, efs_sketch, survival_sketch, updated_at) " +
+        "VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE households = VALUES(households), " +
+        "efs_sketch = VALUES(efs_sketch), survival_sketch = VALUES(survival_sketch), updated_at = VALUES(updated_at)";
+
+    private static final String UPSERT_ENTRY_SQL =
+        "INSERT INTO population_index_entries (user_id, state_key, city_key, district_key, efs, survival_months) " +
+        "VALUES (?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE state_key = VALUES(state_key), city_key = VALUES(city_key), " +
+        "district_key = VALUES(district_key), efs = VALUES(efs), survival_months = VALUES(survival_months)";
+
+    private final Map<String, RegionSketch> regions = new ConcurrentHashMap<>();
+
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "percentile-index-writer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Latest not-yet-applied score per user; a drain task is queued only when a user's slot was empty
+    private record Update(Regions regions, double efs, double survivalMonths) {}
+    private final Map<Long, Update> pending = new ConcurrentHashMap<>();
+
+    // Writer thread only: incremental updates wait in pending until the rebuild is swapped in
+    private boolean rebuilding;
+
+    // Both metrics for one region; merge-compatible with any other RegionSketch
+    public static final class RegionSketch {
+        final QuantileSketch efs = QuantileSketch.efs();
+        final QuantileSketch survival = QuantileSketch.survivalMonths();
+
+        void add(double efsValue, double survivalValue) {
+            efs.add(efsValue);
+            survival.add(survivalValue);
+        }
+
+        void remove(double efsValue, double survivalValue) {
+            efs.remove(efsValue);
+            survival.remove(survivalValue);
+        }
+
+        public void merge(RegionSketch other) {
+            efs.merge(other.efs);
+            survival.merge(other.survival);
+        }
+    }
+
+    // Region keys of one household, most local first; missing address parts are skipped
+    public record Regions(String district, String city, String state) {
+        public static Regions of(FinancialProfile fp) {
+            if (fp == null) return new Regions(null, null, null);
+            String state = normalize(fp.getState());
+            String city = normalize(fp.getCity());
+            String pin = fp.getPincode() != null ? fp.getPincode().replaceAll("\\D", "") : "";
+            return new Regions(
+                pin.length() >= 3 ? "district:" + pin.substring(0, 3) : null,
+                state != null && city != null ? "city:" + state + "/" + city : null,
+                state != null ? "state:" + state : null);
+        }
+
+        List<String> keys() {
+            List<String> keys = new ArrayList<>(4);
+            if (district != null) keys.add(district);
+            if (city != null) keys.add(city);
+            if (state != null) keys.add(state);
+            keys.add(ALL);
+            return keys;
+        }
+
+        private static String normalize(String raw) {
+            if (raw == null || raw.isBlank()) return null;
+            String s = raw.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+            return s.length() > 90 ? s.substring(0, 90) : s;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        jdbcTemplate.query("SELECT region_key, efs_sketch, survival_sketch FROM population_sketches", rs -> {
+            RegionSketch r = new RegionSketch();
+            r.efs.decodeInto(rs.getString("efs_sketch"));
+            r.survival.decodeInto(rs.getString("survival_sketch"));
+            regions.put(rs.getString("region_key"), r);
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        writer.shutdown();
+        writer.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    // ==========================================
+    //   WRITE PATH (background thread)
+    // ==========================================
+    public void record(Long userId, FinancialProfile fp, double efs, double survivalMonths) {
+        if (pending.put(userId, new Update(Regions.of(fp), efs, survivalMonths)) == null) {
+            writer.execute(() -> drain(userId));
+        }
+    }
+
+    private void drain(Long userId) {
+        if (rebuilding) return; // replayed by replaceAll / abortRebuild
+        Update u = pending.remove(userId);
+        if (u == null) return;
+        try {
+            apply(userId, u.regions(), u.efs(), u.survivalMonths());
+        } catch (RuntimeException e) {
+            log.warn("Percentile index update failed for user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    private void replayPending() {
+        for (Long userId : new ArrayList<>(pending.keySet())) drain(userId);
+    }
+
+    private void apply(Long userId, Regions now, double efs, double survivalMonths) {
+        PopulationIndexEntry before = jdbcTemplate.query(
+            "SELECT state_key, city_key, district_key, efs, survival_months FROM population_index_entries WHERE user_id = ?",
+            rs -> rs.next() ? PopulationIndexEntry.builder()
+                .stateKey(rs.getString("state_key"))
+                .cityKey(rs.getString("city_key"))
+                .districtKey(rs.getString("district_key"))
+                .efs(rs.getDouble("efs"))
+                .survivalMonths(rs.getDouble("survival_months"))
+                .build() : null,
+            userId);
+
+        Set<String> touched = new LinkedHashSet<>();
+        if (before != null) {
+            Regions old = new Regions(before.getDistrictKey(), before.getCityKey(), before.getStateKey());
+            if (old.equals(now) && before.getEfs() == efs && before.getSurvivalMonths() == survivalMonths) return;
+            for (String key : old.keys()) {
+                RegionSketch r = regions.get(key);
+                if (r != null) r.remove(before.getEfs(), before.getSurvivalMonths());
+                touched.add(key);
+            }
+        }
+        for (String key : now.keys()) {
+            regions.computeIfAbsent(key, k -> new RegionSketch()).add(efs, survivalMonths);
+            touched.add(key);
+        }
+
+        jdbcTemplate.update(UPSERT_ENTRY_SQL, userId, now.state(), now.city(), now.district(), efs, survivalMonths);
+        Map<String, RegionSketch> changed = new LinkedHashMap<>();
+        for (String key : touched) {
+            RegionSketch r = regions.get(key);
+            if (r != null) changed.put(key, r);
+        }
+        persist(changed);
+    }
+
+    // ==========================================
+    //   FULL REBUILD (nightly batch)
+    //   beginRebuild -> writeEntries per chunk -> replaceAll, or abortRebuild
+    //   on failure. Every step runs on the writer thread and the caller waits,
+    //   so no incremental apply() interleaves with the batch's entries.
+    // ==========================================
+    public void beginRebuild() {
+        onWriter(() -> rebuilding = true);
+    }
+
+    public void writeEntries(List<Object[]> entries) {
+        if (entries.isEmpty()) return;
+        onWriter(() -> jdbcTemplate.batchUpdate(UPSERT_ENTRY_SQL, entries));
+    }
+
+    // Swaps in the merged sketches; the table is replaced in one transaction so a crash keeps the old set
+    public void replaceAll(Map<String, RegionSketch> rebuilt) {
+        onWriter(() -> {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.update("DELETE FROM population_sketches");
+                    persist(rebuilt);
+                });
+                regions.keySet().retainAll(rebuilt.keySet());
+                regions.putAll(rebuilt);
+            } finally {
+                rebuilding = false;
+                replayPending();
+            }
+        });
+    }
+
+    public void abortRebuild() {
+        onWriter(() -> {
+            rebuilding = false;
+            replayPending();
+        });
+    }
+
+    private void onWriter(Runnable task) {
+        try {
+            writer.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted waiting for the percentile index writer", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private void persist(Map<String, RegionSketch> sketches) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(sketches.size());
+        sketches.forEach((key, r) -> rows.add(new Object[]{key, r.efs.count(), r.efs.encode(), r.survival.encode(), now}));
+        if (!rows.isEmpty()) jdbcTemplate.batchUpdate(UPSERT_SKETCH_SQL, rows);
+    }
+
+    // ==========================================
+    //   READ PATH (in memory, constant time per region)
+    // ==========================================
+    public Map<String, Object> percentiles(FinancialProfile fp, double efs, double survivalMonths) {
+        Regions r = Regions.of(fp);
+        List<Map<String, Object>> levels = new ArrayList<>(4);
+        levels.add(level("district", r.district(), efs, survivalMonths));
+        levels.add(level("city", r.city(), efs, survivalMonths));
+        levels.add(level("state", r.state(), efs, survivalMonths));
+        levels.add(level("all", ALL, efs, survivalMonths));
+        levels.removeIf(Objects::isNull);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("economicFlexibilityScore", efs);
+        result.put("survivalMonths", survivalMonths);
+        result.put("regions", levels);
+        return result;
+    }
+
+    private Map<String, Object> level(String level, String key, double efs, double survivalMonths) {
+        if (key == null) return null;
+        RegionSketch sketch = regions.get(key);
+        long households = sketch != null ? sketch.efs.count() : 0;
+
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("level", level);
+        m.put("region", key.substring(key.indexOf(':') + 1));
+        m.put("households", households);
+        if (households < MIN_HOUSEHOLDS) {
+            m.put("message", "Not enough households in this region yet");
+            return m;
+        }
+        m.put("efsPercentile", Math.round(sketch.efs.rank(efs) * 10.0) / 10.0);
+        m.put("survivalPercentile", Math.round(sketch.survival.rank(survivalMonths) * 10.0) / 10.0);
+        m.put("medianEfs", Math.round(sketch.efs.quantile(0.5) * 1000.0) / 1000.0);
+        m.put("medianSurvivalMonths", Math.round(sketch.survival.quantile(0.5) * 100.0) / 100.0);
+        return m;
+    }
+}
@@ -0,0 +1,33 @@
+package com.economic.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// What each household last contributed to the population sketches, so a
+// score or address change can be taken out of the old regions first.
+@Entity
+@Table(name = "population_index_entries")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PopulationIndexEntry {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "state_key", length = 200)
+    private String stateKey;
+
+    @Column(name = "city_key", length = 200)
+    private String cityKey;
+
+    @Column(name = "district_key", length = 200)
+    private String districtKey;
+
+    private Double efs;
+
+    @Column(name = "survival_months")
+    private Double survivalMonths;
+}
@@ -0,0 +1,32 @@
+package com.economic.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+// Per-region EFS / survival-months sketches (QuantileSketch encoding).
+// Written by PercentileIndexService; region keys look like "state:maharashtra",
+// "city:maharashtra/pune", "district:411" (pincode prefix) and "all".
+@Entity
+@Table(name = "population_sketches")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PopulationSketch {
+
+    @Id
+    @Column(name = "region_key", length = 200)
+    private String regionKey;
+
+    private Long households;
+
+    @Column(name = "efs_sketch", length = 4096)
+    private String efsSketch;
+
+    @Column(name = "survival_sketch", length = 4096)
+    private String survivalSketch;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
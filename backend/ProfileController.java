@@ -3,9 +3,14 @@ package com.economic.controller;
 import com.economic.dto.AuthDTOs.ApiResponse;
 import com.economic.entity.*;
 import com.economic.repository.*;
+import com.economic.security.AuthPrincipal;
+import com.economic.service.EfsCache;
+import com.economic.service.HouseholdLoader;
+import com.economic.service.HouseholdSnapshot;
+import com.economic.service.MemberSyncService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -18,18 +23,23 @@ public class ProfileController {
     @Autowired private UserRepository userRepository;
     @Autowired private FamilyMemberRepository memberRepository;
     @Autowired private FinancialProfileRepository financialRepo;
+    @Autowired private EfsCache efsCache;
+    @Autowired private MemberSyncService memberSyncService;
+    @Autowired private HouseholdLoader householdLoader;
 
-    // Helper: get user from token
-    private User getUser(Authentication auth) {
-        return userRepository.findByUsername(auth.getName()).orElseThrow();
+    // Helper: user reference from the token's userId (no SELECT until a field is read)
+    private User getUserRef(AuthPrincipal principal) {
+        return userRepository.getReferenceById(principal.getUserId());
     }
 
     // ===== GET full profile =====
     @GetMapping
-    public ResponseEntity<?> getProfile(Authentication auth) {
-        User user = getUser(auth);
-        FinancialProfile fp = financialRepo.findByUserId(user.getId()).orElse(null);
-        List<FamilyMember> members = memberRepository.findByUserId(user.getId());
+    public ResponseEntity<?> getProfile(@AuthenticationPrincipal AuthPrincipal principal) {
+        // users + financial_profiles + family_members in one statement
+        HouseholdSnapshot household = householdLoader.load(principal.getUserId());
+        User user = household.user();
+        FinancialProfile fp = household.profile();
+        List<FamilyMember> members = household.members();
 
         return ResponseEntity.ok(Map.of(
             "user", Map.of(
@@ -49,10 +59,10 @@ public class ProfileController {
 
     // ===== SAVE household financial details =====
     @PostMapping("/financial")
-    public ResponseEntity<?> saveFinancialProfile(@RequestBody FinancialProfile request, Authentication auth) {
-        User user = getUser(auth);
+    public ResponseEntity<?> saveFinancialProfile(@RequestBody FinancialProfile request, @AuthenticationPrincipal AuthPrincipal principal) {
+        User user = getUserRef(principal);
 
-        FinancialProfile fp = financialRepo.findByUserId(user.getId())
+        FinancialProfile fp = financialRepo.findByUserId(principal.getUserId())
             .orElse(new FinancialProfile());
 
         fp.setUser(user);
@@ -69,28 +79,25 @@ public class ProfileController {
         fp.setEmiAmount(request.getEmiAmount());
 
         financialRepo.save(fp);
+        efsCache.invalidate(principal.getUserId());
         return ResponseEntity.ok(new ApiResponse(true, "Financial profile saved successfully", fp));
     }
 
-    // ===== SAVE/REPLACE all family members =====
+    // ===== SAVE family members (diffed against stored rows) =====
     @PostMapping("/members")
-    public ResponseEntity<?> saveMembers(@RequestBody List<FamilyMember> members, Authentication auth) {
-        User user = getUser(auth);
-
-        // Delete old members
-        memberRepository.deleteByUserId(user.getId());
-
-        // Save new
-        members.forEach(m -> m.setUser(user));
-        memberRepository.saveAll(members);
-
-        return ResponseEntity.ok(new ApiResponse(true, "Members saved successfully", members));
+    public ResponseEntity<?> saveMembers(@RequestBody List<FamilyMember> members, @AuthenticationPrincipal AuthPrincipal principal) {
+        MemberSyncService.SyncResult sync = memberSyncService.sync(principal.getUserId(), members);
+        if (sync.changed()) efsCache.invalidate(principal.getUserId());
+
+        return ResponseEntity.ok(new ApiResponse(true, "Members saved successfully", Map.of(
+            "members", sync.members(),
+            "changes", sync.summary()
+        )));
     }
 
     // ===== GET members =====
     @GetMapping("/members")
-    public ResponseEntity<?> getMembers(Authentication auth) {
-        User user = getUser(auth);
-        return ResponseEntity.ok(memberRepository.findByUserId(user.getId()));
+    public ResponseEntity<?> getMembers(@AuthenticationPrincipal AuthPrincipal principal) {
+        return ResponseEntity.ok(memberRepository.findByUserId(principal.getUserId()));
     }
 }
@@ -0,0 +1,118 @@
+package com.economic.service;
+
+import java.util.Arrays;
+
+// ============================================================
+//   Mergeable quantile sketch over a bounded range
+//   Fixed-width bins between min and max (values outside are clamped to
+//   the end bins). Two sketches with the same layout merge by adding
+//   counts, a value can be removed again when a household's score changes,
+//   and rank / quantile cost O(bins) regardless of how many values were
+//   added. Resolution is the bin width (0.01 for EFS), which is also the
+//   precision the API reports.
+// ============================================================
+public final class QuantileSketch {
+
+    private final double min;
+    private final double max;
+    private final long[] counts;
+    private long total;
+
+    public QuantileSketch(double min, double max, int bins) {
+        this.min = min;
+        this.max = max;
+        this.counts = new long[bins];
+    }
+
+    public static QuantileSketch efs() {
+        return new QuantileSketch(0, 2.0, 200);
+    }
+
+    // Quarter-month bins; everything from 60 months ("Stable") up shares the last bin
+    public static QuantileSketch survivalMonths() {
+        return new QuantileSketch(0, 60.0, 240);
+    }
+
+    public synchronized void add(double value) {
+        counts[bin(value)]++;
+        total++;
+    }
+
+    public synchronized void remove(double value) {
+        int i = bin(value);
+        if (counts[i] == 0) return;
+        counts[i]--;
+        total--;
+    }
+
+    public synchronized void merge(QuantileSketch other) {
+        if (other.counts.length != counts.length || other.min != min || other.max != max) {
+            throw new IllegalArgumentException("Sketch layouts differ");
+        }
+        synchronized (other) {
+            for (int i = 0; i < counts.length; i++) counts[i] += other.counts[i];
+            total += other.total;
+        }
+    }
+
+    public synchronized long count() {
+        return total;
+    }
+
+    // Percentile (0-100) of value: share below it, counting its own bin as half (mid-rank)
+    public synchronized double rank(double value) {
+        if (total == 0) return 0;
+        int b = bin(value);
+        long below = 0;
+        for (int i = 0; i < b; i++) below += counts[i];
+        return (below + 0.5 * counts[b]) / total * 100.0;
+    }
+
+    // Value at quantile q (0-1), as the midpoint of the bin it falls in
+    public synchronized double quantile(double q) {
+        if (total == 0) return Double.NaN;
+        long target = (long) Math.ceil(Math.max(0, Math.min(q, 1)) * total);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= Math.max(target, 1)) return min + (i + 0.5) * width();
+        }
+        return max;
+    }
+
+    // Sparse "bin:count" pairs, e.g. "41:3,57:12"
+    public synchronized String encode() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) continue;
+            if (sb.length() > 0) sb.append(',');
+            sb.append(i).append(':').append(counts[i]);
+        }
+        return sb.toString();
+    }
+
+    public synchronized QuantileSketch decodeInto(String encoded) {
+        Arrays.fill(counts, 0);
+        total = 0;
+        if (encoded == null || encoded.isEmpty()) return this;
+        for (String pair : encoded.split(",")) {
+            int colon = pair.indexOf(':');
+            int i = Integer.parseInt(pair.substring(0, colon));
+            long c = Long.parseLong(pair.substring(colon + 1));
+            if (i < 0 || i >= counts.length) continue;
+            counts[i] += c;
+            total += c;
+        }
+        return this;
+    }
+
+    private double width() {
+        return (max - min) / counts.length;
+    }
+
+    private int bin(double value) {
+        if (Double.isNaN(value) || value <= min) return 0;
+        int i = (int) ((value - min) / width());
+        return Math.min(i, counts.length - 1);
+    }
+}
@@ -0,0 +1,43 @@
+package com.economic.metrics;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// ============================================================
+//   Per-endpoint SQL statement budgets (db.budget.*)
+//   mode=LOG  -> warn when a request goes over its budget
+//   mode=FAIL -> turn the response into a 500 (use in tests)
+//   mode=OFF  -> only record metrics
+//   Only statements Hibernate prepares on the request thread are counted
+//   (SqlStatementCounter). JdbcTemplate writes are outside the budget:
+//   the member_skills reindex on POST /api/profile/members, the tracker
+//   CSV import and the nightly batch scorer, plus the percentile index
+//   writes queued to its background thread.
+//   StatementBudgetIntegrationTest pins the hot read endpoints at 1.
+// ============================================================
+@Data
+@Component
+@ConfigurationProperties(prefix = "db.budget")
+public class QueryBudget {
+
+    public enum Mode { OFF, LOG, FAIL }
+
+    private Mode mode = Mode.LOG;
+
+    // Budget for endpoints not listed below
+    private int defaultBudget = 10;
+
+    // URI pattern -> max statements, e.g. db.budget.endpoints[/api/economic-score]=1
+    private Map<String, Integer> endpoints = new HashMap<>();
+
+    // Adds X-DB-Statements / X-DB-Budget response headers (debug only)
+    private boolean exposeHeader = false;
+
+    public int budgetFor(String uriPattern) {
+        return endpoints.getOrDefault(uriPattern, defaultBudget);
+    }
+}
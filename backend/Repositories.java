@@ -15,10 +15,15 @@ public interface UserRepository extends JpaRepository<User, Long> {
 package com.economic.repository;
 
 import com.economic.entity.FamilyMember;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import java.util.List;
 
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+
 public interface FamilyMemberRepository extends JpaRepository<FamilyMember, Long> {
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     List<FamilyMember> findByUserId(Long userId);
     List<FamilyMember> findByUserIdAndIsEarnerTrue(Long userId);
     void deleteByUserId(Long userId);
@@ -28,10 +33,15 @@ public interface FamilyMemberRepository extends JpaRepository<FamilyMember, Long
 package com.economic.repository;
 
 import com.economic.entity.FinancialProfile;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import java.util.Optional;
 
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+
 public interface FinancialProfileRepository extends JpaRepository<FinancialProfile, Long> {
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     Optional<FinancialProfile> findByUserId(Long userId);
 }
 
@@ -39,7 +49,10 @@ public interface FinancialProfileRepository extends JpaRepository<FinancialProfi
 package com.economic.repository;
 
 import com.economic.entity.ResilienceTracker;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
@@ -47,4 +60,58 @@ import java.util.Optional;
 public interface ResilienceTrackerRepository extends JpaRepository<ResilienceTracker, Long> {
     List<ResilienceTracker> findByUserIdOrderByMonthAsc(Long userId);
     Optional<ResilienceTracker> findByUserIdAndMonth(Long userId, LocalDate month);
+    List<ResilienceTracker> findByUserIdAndMonthBetweenOrderByMonthAsc(Long userId, LocalDate from, LocalDate to);
+
+    // Columns the history charts use; read as a projection, never hydrated as entities
+    interface HistoryRow {
+        LocalDate getMonth();
+        Double getTotalIncome();
+        Double getTotalExpenses();
+        Double getTotalSavings();
+        Double getTotalDebt();
+        Double getResilienceScore();
+    }
+
+    // Keyset page: months in (after, to], ascending; the page size comes from the Pageable
+    @Query("SELECT t.month AS month, t.totalIncome AS totalIncome, t.totalExpenses AS totalExpenses, " +
+           "t.totalSavings AS totalSavings, t.totalDebt AS totalDebt, t.resilienceScore AS resilienceScore " +
+           "FROM ResilienceTracker t WHERE t.user.id = :userId AND t.month > :after AND t.month <= :to " +
+           "ORDER BY t.month ASC")
+    List<HistoryRow> findHistoryPage(@Param("userId") Long userId, @Param("after") LocalDate after,
+                                     @Param("to") LocalDate to, Pageable page);
+
+    // Most recent months first
+    @Query("SELECT t.month AS month, t.totalIncome AS totalIncome, t.totalExpenses AS totalExpenses, " +
+           "t.totalSavings AS totalSavings, t.totalDebt AS totalDebt, t.resilienceScore AS resilienceScore " +
+           "FROM ResilienceTracker t WHERE t.user.id = :userId ORDER BY t.month DESC")
+    List<HistoryRow> findLatestHistory(@Param("userId") Long userId, Pageable page);
+}
+
+// ====================== ResilienceTrendRepository.java ======================
+package com.economic.repository;
+
+import com.economic.entity.ResilienceTrend;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ResilienceTrendRepository extends JpaRepository<ResilienceTrend, Long> {
+}
+
+// ====================== ResilienceForecastRepository.java ======================
+package com.economic.repository;
+
+import com.economic.entity.ResilienceForecast;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ResilienceForecastRepository extends JpaRepository<ResilienceForecast, Long> {
+}
+
+// ====================== SkillRepository.java ======================
+package com.economic.repository;
+
+import com.economic.entity.Skill;
+import org.springframework.data.jpa.repository.JpaRepository;
+import java.util.Optional;
+
+public interface SkillRepository extends JpaRepository<Skill, Integer> {
+    Optional<Skill> findByName(String name);
 }
@@ -0,0 +1,91 @@
+package com.economic.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+// ============================================================
+//   Records SQL statements per request as db.statements.per.request,
+//   tagged with the matched URI pattern and method, and enforces the
+//   per-endpoint statement budget from QueryBudget.
+// ============================================================
+@Component
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestMetricsFilter.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private QueryBudget queryBudget;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        // Headers and FAIL responses must be set before the body is committed, so buffer in those modes
+        // (never for streamed exports, which must not be held in memory)
+        boolean buffer = (queryBudget.isExposeHeader() || queryBudget.getMode() == QueryBudget.Mode.FAIL)
+                && !request.getRequestURI().startsWith("/api/export");
+        ContentCachingResponseWrapper wrapper = buffer ? new ContentCachingResponseWrapper(response) : null;
+
+        SqlStatementCounter.reset();
+        try {
+            filterChain.doFilter(request, wrapper != null ? wrapper : response);
+        } finally {
+            int statements = SqlStatementCounter.current();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+
+            DistributionSummary.builder("db.statements.per.request")
+                    .description("SQL statements issued through Hibernate per HTTP request")
+                    .tag("uri", uri)
+                    .tag("method", request.getMethod())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(statements);
+
+            int budget = queryBudget.budgetFor(uri);
+            boolean exceeded = pattern != null && statements > budget;
+            if (exceeded && queryBudget.getMode() != QueryBudget.Mode.OFF) {
+                log.warn("SQL budget exceeded: {} {} issued {} statements (budget {})",
+                        request.getMethod(), uri, statements, budget);
+            }
+
+            if (wrapper != null) {
+                if (queryBudget.isExposeHeader()) {
+                    wrapper.setHeader("X-DB-Statements", String.valueOf(statements));
+                    wrapper.setHeader("X-DB-Budget", String.valueOf(budget));
+                }
+                if (exceeded && queryBudget.getMode() == QueryBudget.Mode.FAIL) {
+                    wrapper.resetBuffer();
+                    wrapper.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                    wrapper.setContentType("application/json");
+                    wrapper.getOutputStream().write(("{\"success\":false,\"message\":\"SQL budget exceeded: "
+                            + statements + " statements for " + uri + " (budget " + budget + ")\"}")
+                            .getBytes(StandardCharsets.UTF_8));
+                }
+                wrapper.copyBodyToResponse();
+            }
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+}
@@ -0,0 +1,51 @@
+package com.economic.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Fitted forecasting model per user (damped Holt-Winters state), advanced on write
+@Entity
+@Table(name = "resilience_forecasts")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ResilienceForecast {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    // Last month folded into the model
+    private LocalDate lastMonth;
+
+    private Integer observations;
+
+    // Fitted with a month-of-year seasonal component (household has SEASONAL / DAILY_WAGE earners)
+    private Boolean seasonal;
+
+    // A past month changed; refit from history on the next read
+    private Boolean stale;
+
+    // Per series "level:trend:sse:errors:s1,...,s12" (s = seasonal offset by calendar month).
+    // Internal state for incremental updates.
+    @Column(length = 1024)
+    private String scoreModel;
+
+    @Column(length = 1024)
+    private String savingsModel;
+
+    @Column(length = 1024)
+    private String debtModel;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    public void preUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,293 @@
+package com.economic.service;
+
+import com.economic.entity.*;
+import com.economic.repository.*;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+// ============================================================
+//   Resilience Forecasting
+//   Damped Holt-Winters (additive) over each household's monthly savings,
+//   debt and resilienceScore, projecting up to 12 months with 80% / 95%
+//   bands. The month-of-year seasonal component is only learned for
+//   households with SEASONAL / DAILY_WAGE earners. Fitted state lives in
+//   resilience_forecasts and is advanced O(1) when a new latest month is
+//   saved; edits to earlier months mark it stale and the next read refits
+//   from history.
+// ============================================================
+@Service
+public class ResilienceForecastService {
+
+    @Autowired private ResilienceForecastRepository forecastRepository;
+    @Autowired private ResilienceTrackerRepository trackerRepository;
+    @Autowired private HouseholdLoader householdLoader;
+
+    public static final int MAX_HORIZON = 12;
+    private static final int MIN_OBSERVATIONS = 3;
+
+    // Smoothing for level, trend and season; PHI damps the trend so long horizons flatten out
+    private static final double ALPHA = 0.5;
+    private static final double BETA = 0.1;
+    private static final double GAMMA = 0.3;
+    private static final double PHI = 0.9;
+
+    private static final double Z80 = 1.2816;
+    private static final double Z95 = 1.96;
+
+    // Gaps longer than this are treated as a fresh start of the trend
+    private static final int MAX_GAP = 120;
+
+    private static final LocalDate HISTORY_START = LocalDate.of(1900, 1, 1);
+    private static final LocalDate HISTORY_END = LocalDate.of(9999, 12, 1);
+
+    private static final String[] SERIES = {"resilienceScore", "totalSavings", "totalDebt"};
+
+    // ==========================================
+    //   WRITE PATH
+    // ==========================================
+    @Transactional
+    public void onMonthSaved(Long userId, LocalDate month, double score, double savings, double debt) {
+        ResilienceForecast f = forecastRepository.findById(userId).orElse(null);
+        if (f == null || Boolean.TRUE.equals(f.getStale())) return; // fitted from history on the next read
+
+        if (f.getLastMonth() != null && !month.isAfter(f.getLastMonth())) {
+            // Correction to a month already folded into the state: cannot be undone incrementally
+            f.setStale(true);
+            forecastRepository.save(f);
+            return;
+        }
+
+        Series[] series = decode(f);
+        int n = f.getObservations() != null ? f.getObservations() : 0;
+        advance(series, f.getLastMonth(), month, new double[]{score, savings, debt},
+            Boolean.TRUE.equals(f.getSeasonal()) ? GAMMA : 0, n);
+        f.setLastMonth(month);
+        f.setObservations(n + 1);
+        encode(f, series);
+        forecastRepository.save(f);
+    }
+
+    // After bulk writes (import): refit lazily on the next read
+    @Transactional
+    public void invalidate(Long userId) {
+        forecastRepository.findById(userId).ifPresent(f -> {
+            f.setStale(true);
+            forecastRepository.save(f);
+        });
+    }
+
+    // ==========================================
+    //   READ PATH
+    // ==========================================
+    @Transactional
+    @Timed(value = "formula.resilience.forecast", histogram = true)
+    public Map<String, Object> forecast(Long userId, int months) {
+        if (months < 1 || months > MAX_HORIZON) throw new RuntimeException("months must be between 1 and " + MAX_HORIZON);
+
+        boolean seasonal = householdLoader.load(userId).earners().stream()
+            .anyMatch(e -> isSeasonal(e.getIncomeStability()));
+
+        ResilienceForecast f = forecastRepository.findById(userId).orElse(null);
+        boolean refitted = false;
+        if (f == null || Boolean.TRUE.equals(f.getStale()) || !Boolean.valueOf(seasonal).equals(f.getSeasonal())) {
+            f = fit(userId, seasonal, f);
+            refitted = true;
+        }
+
+        int n = f.getObservations() != null ? f.getObservations() : 0;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("lastObservedMonth", f.getLastMonth());
+        result.put("observations", n);
+        result.put("seasonal", seasonal);
+        result.put("refitted", refitted);
+        if (n < MIN_OBSERVATIONS) {
+            result.put("forecast", List.of());
+            result.put("message", "At least " + MIN_OBSERVATIONS + " months of history are needed to forecast");
+            return result;
+        }
+
+        Series[] series = decode(f);
+        List<Map<String, Object>> projection = new ArrayList<>(months);
+        for (int h = 1; h <= months; h++) {
+            LocalDate month = f.getLastMonth().plusMonths(h);
+            Map<String, Object> point = new LinkedHashMap<>();
+            point.put("month", month);
+            for (int k = 0; k < SERIES.length; k++) {
+                // Scores live in 0-100; savings and debt cannot go below zero
+                double max = k == 0 ? 100 : Double.MAX_VALUE;
+                point.put(SERIES[k], band(series[k], h, month.getMonthValue() - 1, max));
+            }
+            projection.add(point);
+        }
+        result.put("forecast", projection);
+        return result;
+    }
+
+    private Map<String, Object> band(Series s, int h, int seasonIndex, double max) {
+        double value = s.forecast(h, seasonIndex);
+        double sigma = s.sigma(h);
+        Map<String, Object> b = new LinkedHashMap<>();
+        b.put("value", clampRound(value, max));
+        b.put("low80", clampRound(value - Z80 * sigma, max));
+        b.put("high80", clampRound(value + Z80 * sigma, max));
+        b.put("low95", clampRound(value - Z95 * sigma, max));
+        b.put("high95", clampRound(value + Z95 * sigma, max));
+        return b;
+    }
+
+    // ==========================================
+    //   FITTING
+    // ==========================================
+    private ResilienceForecast fit(Long userId, boolean seasonal, ResilienceForecast existing) {
+        List<ResilienceTrackerRepository.HistoryRow> history =
+            trackerRepository.findHistoryPage(userId, HISTORY_START, HISTORY_END, Pageable.unpaged());
+
+        Series[] series = newSeries();
+        double gamma = seasonal ? GAMMA : 0;
+        LocalDate last = null;
+        int n = 0;
+        for (ResilienceTrackerRepository.HistoryRow r : history) {
+            advance(series, last, r.getMonth(),
+                new double[]{nz(r.getResilienceScore()), nz(r.getTotalSavings()), nz(r.getTotalDebt())}, gamma, n);
+            last = r.getMonth();
+            n++;
+        }
+
+        ResilienceForecast f = existing != null ? existing : ResilienceForecast.builder().userId(userId).build();
+        f.setLastMonth(last);
+        f.setObservations(n);
+        f.setSeasonal(seasonal);
+        f.setStale(false);
+        encode(f, series);
+        return forecastRepository.save(f);
+    }
+
+    // Rolls the state through any unrecorded months, then folds in the new observation
+    private void advance(Series[] series, LocalDate lastMonth, LocalDate month, double[] values, double gamma, int n) {
+        int gap = lastMonth != null ? (int) Math.min(ChronoUnit.MONTHS.between(lastMonth, month) - 1, MAX_GAP) : 0;
+        boolean restart = gap >= MAX_GAP;
+        int seasonIndex = month.getMonthValue() - 1;
+        for (int k = 0; k < series.length; k++) {
+            for (int g = 0; g < gap && !restart; g++) series[k].skip();
+            series[k].update(values[k], seasonIndex, gamma, restart ? 0 : n);
+        }
+    }
+
+    private static boolean isSeasonal(String stability) {
+        if (stability == null) return true;
+        String s = stability.toUpperCase();
+        return !s.equals("STABLE") && !s.equals("SEMI_STABLE");
+    }
+
+    // ==========================================
+    //   MODEL STATE (one per series)
+    // ==========================================
+    private static final class Series {
+        double level;
+        double trend;
+        double sse;     // sum of squared one-step-ahead errors
+        int errors;
+        final double[] season = new double[12];
+
+        void update(double y, int s, double gamma, int n) {
+            if (n == 0) {
+                level = y - season[s];
+                trend = 0;
+                return;
+            }
+            double prevLevel = level;
+            if (n == 1) {
+                // Second point initializes the trend directly
+                level = y - season[s];
+                trend = level - prevLevel;
+            } else {
+                double err = y - (level + PHI * trend + season[s]);
+                sse += err * err;
+                errors++;
+                level = ALPHA * (y - season[s]) + (1 - ALPHA) * (level + PHI * trend);
+                trend = BETA * (level - prevLevel) + (1 - BETA) * PHI * trend;
+            }
+            season[s] = gamma * (y - level) + (1 - gamma) * season[s];
+        }
+
+        // Month with no observation: follow the damped trend
+        void skip() {
+            level += PHI * trend;
+            trend *= PHI;
+        }
+
+        double forecast(int h, int s) {
+            double damped = 0;
+            double phi = 1;
+            for (int i = 1; i <= h; i++) {
+                phi *= PHI;
+                damped += phi;
+            }
+            return level + damped * trend + season[s];
+        }
+
+        // h-step standard error: sigma^2 * (1 + sum_{j<h} (alpha * (1 + j * beta))^2)
+        double sigma(int h) {
+            if (errors == 0) return 0;
+            double variance = sse / errors;
+            double factor = 1;
+            for (int j = 1; j < h; j++) {
+                double c = ALPHA * (1 + j * BETA);
+                factor += c * c;
+            }
+            return Math.sqrt(variance * factor);
+        }
+
+        String encode() {
+            StringBuilder sb = new StringBuilder(256);
+            sb.append(level).append(':').append(trend).append(':').append(sse).append(':').append(errors).append(':');
+            for (int i = 0; i < season.length; i++) {
+                if (i > 0) sb.append(',');
+                sb.append(season[i]);
+            }
+            return sb.toString();
+        }
+
+        static Series decode(String encoded) {
+            Series s = new Series();
+            if (encoded == null || encoded.isEmpty()) return s;
+            String[] v = encoded.split(":");
+            s.level = Double.parseDouble(v[0]);
+            s.trend = Double.parseDouble(v[1]);
+            s.sse = Double.parseDouble(v[2]);
+            s.errors = Integer.parseInt(v[3]);
+            String[] season = v[4].split(",");
+            for (int i = 0; i < Math.min(season.length, s.season.length); i++) s.season[i] = Double.parseDouble(season[i]);
+            return s;
+        }
+    }
+
+    private Series[] newSeries() {
+        return new Series[]{new Series(), new Series(), new Series()};
+    }
+
+    private Series[] decode(ResilienceForecast f) {
+        return new Series[]{Series.decode(f.getScoreModel()), Series.decode(f.getSavingsModel()), Series.decode(f.getDebtModel())};
+    }
+
+    private void encode(ResilienceForecast f, Series[] series) {
+        f.setScoreModel(series[0].encode());
+        f.setSavingsModel(series[1].encode());
+        f.setDebtModel(series[2].encode());
+    }
+
+    private static double clampRound(double v, double max) {
+        return Math.round(Math.max(0, Math.min(v, max)) * 100.0) / 100.0;
+    }
+
+    private static double nz(Double v) {
+        return v != null ? v : 0;
+    }
+}
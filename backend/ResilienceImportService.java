@@ -0,0 +1,340 @@
+package com.economic.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+// ============================================================
+//   Streaming Resilience Tracker Import
+//   Parses NDJSON or CSV line by line, computes resilience scores and
+//   month-over-month deltas in memory, and upserts in JDBC batches.
+//   Only the current batch and one "last month" state per user are held.
+//   Rows must be in ascending month order per user. A stored month that
+//   directly follows an imported one (after a gap, or after the last
+//   imported month) is re-scored, since its delta depends on that month.
+// ============================================================
+@Service
+public class ResilienceImportService {
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private FormulaService formulaService;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private ResilienceTrendService trendService;
+    @Autowired private ResilienceForecastService forecastService;
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int MAX_REPORTED_ERRORS = 20;
+
+    private static final String PREVIOUS_MONTH_SQL =
+        "SELECT total_savings, total_debt FROM resilience_tracker WHERE user_id = ? AND month = ?";
+
+    private static final String FOLLOWING_MONTH_SQL =
+        "SELECT total_savings, total_expenses, total_debt, income_source_count, skill_count " +
+        "FROM resilience_tracker WHERE user_id = ? AND month = ?";
+
+    private static final String RESCORE_SQL =
+        "UPDATE resilience_tracker SET resilience_score = ? WHERE user_id = ? AND month = ?";
+
+    // Relies on the (user_id, month) unique key on resilience_tracker
+    private static final String UPSERT_SQL =
+        "INSERT INTO resilience_tracker (user_id, month, total_income, total_expenses, total_savings, total_debt, " +
+        "income_source_count, skill_count, dependent_count, earner_count, emergency_fund_ratio, resilience_score, created_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+        "ON DUPLICATE KEY UPDATE total_income = VALUES(total_income), total_expenses = VALUES(total_expenses), " +
+        "total_savings = VALUES(total_savings), total_debt = VALUES(total_debt), " +
+        "income_source_count = VALUES(income_source_count), skill_count = VALUES(skill_count), " +
+        "dependent_count = VALUES(dependent_count), earner_count = VALUES(earner_count), " +
+        "emergency_fund_ratio = VALUES(emergency_fund_ratio), resilience_score = VALUES(resilience_score)";
+
+    public enum Format { NDJSON, CSV }
+
+    // One parsed input row
+    public record Row(long userId, LocalDate month, Double totalIncome, double totalExpenses, double totalSavings,
+                      double totalDebt, Integer incomeSourceCount, Integer skillCount,
+                      Integer dependentCount, Integer earnerCount) {}
+
+    // Scored row ready to write
+    private record Scored(Row row, double emergencyFundRatio, double resilienceScore) {}
+
+    // Last imported month per user, for deltas without re-reading the DB
+    private record LastMonth(LocalDate month, double totalSavings, double totalDebt) {}
+
+    // Stored month right after an imported one; its score is re-derived from that predecessor
+    private record Follower(long userId, LocalDate month, double prevSavings, double prevDebt) {}
+
+    /**
+     * Imports rows from the stream. When ownerId is set every row is written for that user
+     * (a userId column, if present, must match); otherwise each row must carry userId.
+     */
+    public Map<String, Object> importStream(InputStream in, Format format, Long ownerId) throws IOException {
+        long start = System.currentTimeMillis();
+        Map<Long, LastMonth> lastByUser = new HashMap<>();
+        List<Scored> batch = new ArrayList<>(BATCH_SIZE);
+        List<Follower> followers = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        long lineNo = 0;
+        long imported = 0;
+        long rejected = 0;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String[] header = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank()) continue;
+                if (format == Format.CSV && header == null) {
+                    header = splitCsv(line);
+                    for (int i = 0; i < header.length; i++) header[i] = header[i].trim();
+                    continue;
+                }
+                try {
+                    Row row = format == Format.CSV ? parseCsv(header, line, ownerId) : parseJson(line, ownerId);
+                    batch.add(score(row, lastByUser, followers));
+                    if (batch.size() >= BATCH_SIZE) {
+                        imported += flush(batch);
+                    }
+                } catch (RuntimeException e) {
+                    rejected++;
+                    if (errors.size() < MAX_REPORTED_ERRORS) errors.add("line " + lineNo + ": " + e.getMessage());
+                }
+            }
+        }
+        imported += flush(batch);
+
+        // The month after each user's last imported month, plus any gap followers
+        lastByUser.forEach((userId, last) ->
+            followers.add(new Follower(userId, last.month().plusMonths(1), last.totalSavings(), last.totalDebt())));
+        int rescored = rescore(followers);
+
+        // One bounded rebuild per household instead of a trend update per row;
+        // forecasts are refitted from history on their next read
+        for (Long userId : lastByUser.keySet()) {
+            trendService.rebuild(userId);
+            forecastService.invalidate(userId);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("success", rejected == 0);
+        result.put("linesRead", lineNo);
+        result.put("imported", imported);
+        result.put("rejected", rejected);
+        result.put("followingMonthsRescored", rescored);
+        result.put("households", lastByUser.size());
+        result.put("errors", errors);
+        result.put("elapsedMs", System.currentTimeMillis() - start);
+        return result;
+    }
+
+    private Scored score(Row row, Map<Long, LastMonth> lastByUser, List<Follower> followers) {
+        LastMonth last = lastByUser.get(row.userId());
+        if (last != null && !row.month().isAfter(last.month())) {
+            throw new RuntimeException("months must be ascending per user (" + row.month() + " after " + last.month() + ")");
+        }
+
+        LocalDate prevMonth = row.month().minusMonths(1);
+        LastMonth prev;
+        if (last != null && last.month().equals(prevMonth)) {
+            prev = last;
+        } else {
+            // First row for this user, or the file skips months: the previous month may already be stored
+            prev = jdbcTemplate.query(PREVIOUS_MONTH_SQL, rs -> rs.next()
+                ? new LastMonth(prevMonth, rs.getDouble("total_savings"), rs.getDouble("total_debt")) : null,
+                row.userId(), Date.valueOf(prevMonth));
+            // A stored month inside the gap now follows the previously imported month
+            if (last != null) {
+                followers.add(new Follower(row.userId(), last.month().plusMonths(1), last.totalSavings(), last.totalDebt()));
+            }
+        }
+
+        double deltaSavings = prev != null ? row.totalSavings() - prev.totalSavings() : 0.0;
+        double deltaDebt = prev != null ? prev.totalDebt() - row.totalDebt() : 0.0;
+
+        double score = formulaService.calculateResilienceScore(
+            row.totalSavings(),
+            row.totalExpenses(),
+            row.incomeSourceCount() != null ? row.incomeSourceCount() : 1,
+            row.skillCount() != null ? row.skillCount() : 0,
+            deltaSavings,
+            deltaDebt
+        );
+        double efr = row.totalExpenses() > 0 ? row.totalSavings() / row.totalExpenses() : 0;
+
+        lastByUser.put(row.userId(), new LastMonth(row.month(), row.totalSavings(), row.totalDebt()));
+        return new Scored(row, efr, score);
+    }
+
+    private int flush(List<Scored> batch) {
+        if (batch.isEmpty()) return 0;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(UPSERT_SQL, batch, batch.size(), (ps, s) -> {
+            Row r = s.row();
+            ps.setLong(1, r.userId());
+            ps.setDate(2, Date.valueOf(r.month()));
+            setDouble(ps, 3, r.totalIncome());
+            ps.setDouble(4, r.totalExpenses());
+            ps.setDouble(5, r.totalSavings());
+            ps.setDouble(6, r.totalDebt());
+            setInt(ps, 7, r.incomeSourceCount());
+            setInt(ps, 8, r.skillCount());
+            setInt(ps, 9, r.dependentCount());
+            setInt(ps, 10, r.earnerCount());
+            ps.setDouble(11, s.emergencyFundRatio());
+            ps.setDouble(12, s.resilienceScore());
+            ps.setTimestamp(13, now);
+        });
+        int n = batch.size();
+        batch.clear();
+        return n;
+    }
+
+    // Re-scores stored months that follow an imported month; their own savings/debt did not
+    // change, so the user-level cascade (ResilienceTrackerService.saveMonth) stops there
+    private int rescore(List<Follower> followers) {
+        List<Object[]> updates = new ArrayList<>();
+        int rescored = 0;
+        for (Follower f : followers) {
+            Double score = jdbcTemplate.query(FOLLOWING_MONTH_SQL, rs -> {
+                if (!rs.next()) return null;
+                int sources = rs.getInt("income_source_count");
+                if (rs.wasNull()) sources = 1;
+                int skills = rs.getInt("skill_count");
+                return formulaService.calculateResilienceScore(
+                    rs.getDouble("total_savings"),
+                    rs.getDouble("total_expenses"),
+                    sources,
+                    skills,
+                    rs.getDouble("total_savings") - f.prevSavings(),
+                    f.prevDebt() - rs.getDouble("total_debt"));
+            }, f.userId(), Date.valueOf(f.month()));
+            if (score == null) continue;
+            updates.add(new Object[]{score, f.userId(), Date.valueOf(f.month())});
+            if (updates.size() >= BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(RESCORE_SQL, updates);
+                rescored += updates.size();
+                updates.clear();
+            }
+        }
+        if (!updates.isEmpty()) jdbcTemplate.batchUpdate(RESCORE_SQL, updates);
+        return rescored + updates.size();
+    }
+
+    // ==========================================
+    //   PARSING
+    // ==========================================
+    private Row parseJson(String line, Long ownerId) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (IOException e) {
+            throw new RuntimeException("invalid JSON");
+        }
+        Map<String, String> values = new HashMap<>();
+        node.fields().forEachRemaining(f -> {
+            if (!f.getValue().isNull()) values.put(f.getKey(), f.getValue().asText());
+        });
+        return toRow(values, ownerId);
+    }
+
+    private Row parseCsv(String[] header, String line, Long ownerId) {
+        String[] cells = splitCsv(line);
+        if (cells.length != header.length) throw new RuntimeException("expected " + header.length + " columns");
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < header.length; i++) {
+            String v = cells[i].trim();
+            if (!v.isEmpty()) values.put(header[i], v);
+        }
+        return toRow(values, ownerId);
+    }
+
+    // RFC 4180 fields on one line: quoted fields may hold commas and doubled quotes;
+    // a quoted field spanning lines is rejected (tracker columns never need one)
+    static String[] splitCsv(String line) {
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        boolean wasQuoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') cell.append(c);
+                else if (i + 1 < line.length() && line.charAt(i + 1) == '"') { cell.append('"'); i++; }
+                else quoted = false;
+            } else if (c == '"') {
+                if (wasQuoted || !cell.toString().isBlank()) throw new RuntimeException("unexpected quote in column " + (cells.size() + 1));
+                cell.setLength(0);
+                quoted = true;
+                wasQuoted = true;
+            } else if (c == ',') {
+                cells.add(cell.toString());
+                cell.setLength(0);
+                wasQuoted = false;
+            } else if (!wasQuoted) {
+                cell.append(c);
+            } else if (c != ' ' && c != '\t') {
+                throw new RuntimeException("unexpected text after quoted column " + (cells.size() + 1));
+            }
+        }
+        if (quoted) throw new RuntimeException("unterminated quoted field (multi-line fields are not supported)");
+        cells.add(cell.toString());
+        return cells.toArray(new String[0]);
+    }
+
+    private Row toRow(Map<String, String> v, Long ownerId) {
+        Long rowUser = v.containsKey("userId") ? Long.valueOf(v.get("userId")) : null;
+        long userId;
+        if (ownerId != null) {
+            if (rowUser != null && !rowUser.equals(ownerId)) throw new RuntimeException("userId does not match the caller");
+            userId = ownerId;
+        } else {
+            if (rowUser == null) throw new RuntimeException("userId is required");
+            userId = rowUser;
+        }
+
+        String month = required(v, "month");
+        LocalDate m = (month.length() == 7 ? LocalDate.parse(month + "-01") : LocalDate.parse(month)).withDayOfMonth(1);
+
+        return new Row(userId, m,
+            v.containsKey("totalIncome") ? Double.valueOf(v.get("totalIncome")) : null,
+            Double.parseDouble(required(v, "totalExpenses")),
+            Double.parseDouble(required(v, "totalSavings")),
+            Double.parseDouble(required(v, "totalDebt")),
+            optionalInt(v, "incomeSourceCount"),
+            optionalInt(v, "skillCount"),
+            optionalInt(v, "dependentCount"),
+            optionalInt(v, "earnerCount"));
+    }
+
+    private static String required(Map<String, String> v, String key) {
+        String s = v.get(key);
+        if (s == null) throw new RuntimeException(key + " is required");
+        return s;
+    }
+
+    private static Integer optionalInt(Map<String, String> v, String key) {
+        return v.containsKey(key) ? Integer.valueOf(v.get(key)) : null;
+    }
+
+    private static void setDouble(PreparedStatement ps, int i, Double value) throws SQLException {
+        if (value != null) ps.setDouble(i, value); else ps.setNull(i, Types.DOUBLE);
+    }
+
+    private static void setInt(PreparedStatement ps, int i, Integer value) throws SQLException {
+        if (value != null) ps.setInt(i, value); else ps.setNull(i, Types.INTEGER);
+    }
+}
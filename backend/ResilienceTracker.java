@@ -1,12 +1,15 @@
 package com.economic.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "resilience_tracker")
+@Table(name = "resilience_tracker", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_tracker_user_month", columnNames = {"user_id", "month"})
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -17,6 +20,7 @@ public class ResilienceTracker {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @JsonIgnore // lazy proxy; also keeps the user's password hash out of responses
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
@@ -0,0 +1,128 @@
+package com.economic.service;
+
+import com.economic.entity.*;
+import com.economic.repository.*;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.*;
+
+// ============================================================
+//   Resilience Tracker Writes
+//   Saves one month and re-derives the scores of the months after it.
+//   A month's score depends on its own values and the previous month's
+//   savings/debt, so the walk forward stops at the first later month whose
+//   predecessor's savings/debt did not change. Everything needed comes from
+//   one range query; only rows whose score changed are dirtied (and flushed
+//   as one JDBC batch by Hibernate).
+// ============================================================
+@Service
+public class ResilienceTrackerService {
+
+    @Autowired private ResilienceTrackerRepository trackerRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private FormulaService formulaService;
+    @Autowired private ResilienceTrendService trendService;
+    @Autowired private ResilienceForecastService forecastService;
+
+    private static final double EPSILON = 1e-9;
+
+    @Timed(value = "formula.resilience", histogram = true)
+    @Transactional
+    public Map<String, Object> saveMonth(Long userId, ResilienceTracker request) {
+        LocalDate month = request.getMonth() != null ? request.getMonth() : LocalDate.now().withDayOfMonth(1);
+        LocalDate prevMonth = month.minusMonths(1);
+
+        // Previous month, the month itself and the month after it, ascending.
+        // Later months cannot be affected (see the walk below), so the range stops there.
+        List<ResilienceTracker> range = trackerRepository
+            .findByUserIdAndMonthBetweenOrderByMonthAsc(userId, prevMonth, month.plusMonths(1));
+
+        ResilienceTracker prev = null;
+        ResilienceTracker tracker = null;
+        int next = 0;
+        for (; next < range.size(); next++) {
+            ResilienceTracker r = range.get(next);
+            if (r.getMonth().equals(prevMonth)) prev = r;
+            else if (r.getMonth().equals(month)) tracker = r;
+            else if (r.getMonth().isAfter(month)) break;
+        }
+
+        boolean inputsChanged = tracker == null
+            || !same(tracker.getTotalSavings(), request.getTotalSavings())
+            || !same(tracker.getTotalDebt(), request.getTotalDebt());
+        if (tracker == null) tracker = new ResilienceTracker();
+
+        tracker.setUser(userRepository.getReferenceById(userId));
+        tracker.setMonth(month);
+        tracker.setTotalIncome(request.getTotalIncome());
+        tracker.setTotalExpenses(request.getTotalExpenses());
+        tracker.setTotalSavings(request.getTotalSavings());
+        tracker.setTotalDebt(request.getTotalDebt());
+        tracker.setIncomeSourceCount(request.getIncomeSourceCount());
+        tracker.setSkillCount(request.getSkillCount());
+        tracker.setDependentCount(request.getDependentCount());
+        tracker.setEarnerCount(request.getEarnerCount());
+        tracker.setEmergencyFundRatio(request.getTotalExpenses() > 0
+            ? request.getTotalSavings() / request.getTotalExpenses() : 0);
+        double score = score(tracker, prev);
+        tracker.setResilienceScore(score);
+
+        trackerRepository.save(tracker);
+        trendService.onMonthSaved(userId, month, score, tracker.getTotalSavings(), tracker.getTotalDebt());
+        forecastService.onMonthSaved(userId, month, score, tracker.getTotalSavings(), tracker.getTotalDebt());
+
+        // Walk forward while the predecessor's savings/debt actually changed
+        int recomputed = 0;
+        int updated = 0;
+        ResilienceTracker predecessor = tracker;
+        for (; inputsChanged && next < range.size(); next++) {
+            ResilienceTracker later = range.get(next);
+            if (!later.getMonth().equals(predecessor.getMonth().plusMonths(1))) break; // gap: delta was 0 and stays 0
+            recomputed++;
+            double newScore = score(later, predecessor);
+            if (later.getResilienceScore() == null || Math.abs(later.getResilienceScore() - newScore) > EPSILON) {
+                later.setResilienceScore(newScore); // dirty -> batched UPDATE at flush
+                trendService.onMonthSaved(userId, later.getMonth(), newScore,
+                    nz(later.getTotalSavings()), nz(later.getTotalDebt()));
+                forecastService.onMonthSaved(userId, later.getMonth(), newScore,
+                    nz(later.getTotalSavings()), nz(later.getTotalDebt()));
+                updated++;
+            }
+            // later's own savings/debt are untouched, so months after it cannot change
+            inputsChanged = false;
+            predecessor = later;
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("resilienceScore", score);
+        result.put("laterMonthsRecomputed", recomputed);
+        result.put("laterMonthsUpdated", updated);
+        return result;
+    }
+
+    private double score(ResilienceTracker month, ResilienceTracker prev) {
+        double deltaSavings = prev != null ? nz(month.getTotalSavings()) - nz(prev.getTotalSavings()) : 0.0;
+        double deltaDebt = prev != null ? nz(prev.getTotalDebt()) - nz(month.getTotalDebt()) : 0.0;
+        return formulaService.calculateResilienceScore(
+            nz(month.getTotalSavings()),
+            nz(month.getTotalExpenses()),
+            month.getIncomeSourceCount() != null ? month.getIncomeSourceCount() : 1,
+            month.getSkillCount() != null ? month.getSkillCount() : 0,
+            deltaSavings,
+            deltaDebt
+        );
+    }
+
+    private static boolean same(Double a, Double b) {
+        if (a == null || b == null) return a == b;
+        return Math.abs(a - b) <= EPSILON;
+    }
+
+    private static double nz(Double v) {
+        return v != null ? v : 0;
+    }
+}
@@ -0,0 +1,51 @@
+package com.economic.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Rolling 3/6/12-month resilience aggregates per user, maintained on write
+@Entity
+@Table(name = "resilience_trends")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ResilienceTrend {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    private LocalDate latestMonth;
+
+    // Moving averages of resilienceScore
+    private Double avgScore3;
+    private Double avgScore6;
+    private Double avgScore12;
+
+    // Average monthly change in savings (positive = growing)
+    private Double savingsVelocity3;
+    private Double savingsVelocity6;
+    private Double savingsVelocity12;
+
+    // Average monthly reduction in debt (positive = paying down)
+    private Double debtPaydown3;
+    private Double debtPaydown6;
+    private Double debtPaydown12;
+
+    // Last 13 months (latestMonth first) as "score:savings:debt" slots separated by ';'
+    // empty slot = month not recorded. Internal state for incremental updates.
+    @Column(length = 1024)
+    private String recentMonths;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    public void preUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
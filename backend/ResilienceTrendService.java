@@ -0,0 +1,195 @@
+package com.economic.service;
+
+import com.economic.entity.*;
+import com.economic.repository.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+// ============================================================
+//   Rolling Resilience Trends
+//   Keeps 3/6/12-month aggregates in resilience_trends, updated each time a
+//   month is written. The row carries the last 13 months of
+//   (score, savings, debt) so every update is O(1) in the history length;
+//   an edit to a past month only recomputes the windows that contain it.
+// ============================================================
+@Service
+public class ResilienceTrendService {
+
+    @Autowired private ResilienceTrendRepository trendRepository;
+    @Autowired private ResilienceTrackerRepository trackerRepository;
+
+    public static final int[] WINDOWS = {3, 6, 12};
+    private static final int SLOTS = 13; // 12-month deltas need the month 12 back
+
+    // ==========================================
+    //   WRITE PATH
+    // ==========================================
+    @Transactional
+    public void onMonthSaved(Long userId, LocalDate month, double score, double savings, double debt) {
+        ResilienceTrend trend = trendRepository.findById(userId).orElse(null);
+        double[][] slots;
+        boolean[] affected = new boolean[WINDOWS.length];
+
+        if (trend == null || trend.getLatestMonth() == null) {
+            trend = ResilienceTrend.builder().userId(userId).latestMonth(month).build();
+            slots = emptySlots();
+            slots[0] = new double[]{score, savings, debt};
+            Arrays.fill(affected, true);
+        } else {
+            slots = decode(trend.getRecentMonths());
+            long offset = ChronoUnit.MONTHS.between(month, trend.getLatestMonth());
+            if (offset < 0) {
+                // New latest month: slide every window forward
+                int shift = (int) Math.min(-offset, SLOTS);
+                System.arraycopy(slots, 0, slots, shift, SLOTS - shift);
+                for (int i = 0; i < shift; i++) slots[i] = null;
+                slots[0] = new double[]{score, savings, debt};
+                trend.setLatestMonth(month);
+                Arrays.fill(affected, true);
+            } else if (offset < SLOTS) {
+                // Backfill / correction inside the tracked range
+                slots[(int) offset] = new double[]{score, savings, debt};
+                for (int w = 0; w < WINDOWS.length; w++) affected[w] = offset <= WINDOWS[w];
+            } else {
+                return; // older than every window: current trends are unchanged
+            }
+        }
+
+        recompute(trend, slots, affected);
+        trend.setRecentMonths(encode(slots));
+        trendRepository.save(trend);
+    }
+
+    // Rebuilds one user's row from its latest 13 stored months (used after bulk writes)
+    @Transactional
+    public void rebuild(Long userId) {
+        List<ResilienceTrackerRepository.HistoryRow> recent =
+            trackerRepository.findLatestHistory(userId, PageRequest.of(0, SLOTS));
+        if (recent.isEmpty()) {
+            trendRepository.deleteById(userId);
+            return;
+        }
+        LocalDate latest = recent.get(0).getMonth();
+        double[][] slots = emptySlots();
+        for (ResilienceTrackerRepository.HistoryRow r : recent) {
+            long offset = ChronoUnit.MONTHS.between(r.getMonth(), latest);
+            if (offset < SLOTS) slots[(int) offset] = new double[]{
+                nz(r.getResilienceScore()), nz(r.getTotalSavings()), nz(r.getTotalDebt())};
+        }
+        ResilienceTrend trend = trendRepository.findById(userId)
+            .orElse(ResilienceTrend.builder().userId(userId).build());
+        trend.setLatestMonth(latest);
+        boolean[] all = new boolean[WINDOWS.length];
+        Arrays.fill(all, true);
+        recompute(trend, slots, all);
+        trend.setRecentMonths(encode(slots));
+        trendRepository.save(trend);
+    }
+
+    // ==========================================
+    //   READ PATH (single row, O(1))
+    // ==========================================
+    public Map<String, Object> getTrends(Long userId) {
+        ResilienceTrend t = trendRepository.findById(userId).orElse(null);
+        Map<String, Object> result = new LinkedHashMap<>();
+        if (t == null) {
+            result.put("latestMonth", null);
+            return result;
+        }
+        result.put("latestMonth", t.getLatestMonth());
+        result.put("avgResilienceScore", window(t.getAvgScore3(), t.getAvgScore6(), t.getAvgScore12()));
+        result.put("savingsVelocity", window(t.getSavingsVelocity3(), t.getSavingsVelocity6(), t.getSavingsVelocity12()));
+        result.put("debtPaydownRate", window(t.getDebtPaydown3(), t.getDebtPaydown6(), t.getDebtPaydown12()));
+        return result;
+    }
+
+    private Map<String, Object> window(Double m3, Double m6, Double m12) {
+        Map<String, Object> w = new LinkedHashMap<>();
+        w.put("3m", m3);
+        w.put("6m", m6);
+        w.put("12m", m12);
+        return w;
+    }
+
+    // ==========================================
+    //   WINDOW MATH
+    // ==========================================
+    private void recompute(ResilienceTrend t, double[][] slots, boolean[] affected) {
+        for (int w = 0; w < WINDOWS.length; w++) {
+            if (!affected[w]) continue;
+            int size = WINDOWS[w];
+            Double avg = averageScore(slots, size);
+            Double velocity = ratePerMonth(slots, size, 1, false);
+            Double paydown = ratePerMonth(slots, size, 2, true);
+            switch (size) {
+                case 3 -> { t.setAvgScore3(avg); t.setSavingsVelocity3(velocity); t.setDebtPaydown3(paydown); }
+                case 6 -> { t.setAvgScore6(avg); t.setSavingsVelocity6(velocity); t.setDebtPaydown6(paydown); }
+                default -> { t.setAvgScore12(avg); t.setSavingsVelocity12(velocity); t.setDebtPaydown12(paydown); }
+            }
+        }
+    }
+
+    private Double averageScore(double[][] slots, int size) {
+        double sum = 0;
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            if (slots[i] == null) continue;
+            sum += slots[i][0];
+            n++;
+        }
+        return n > 0 ? round(sum / n) : null;
+    }
+
+    // (latest - oldest) / months between them, using the oldest recorded month within the window
+    private Double ratePerMonth(double[][] slots, int size, int field, boolean decreasing) {
+        if (slots[0] == null) return null;
+        for (int k = size; k > 0; k--) {
+            if (slots[k] == null) continue;
+            double change = slots[0][field] - slots[k][field];
+            return round((decreasing ? -change : change) / k);
+        }
+        return null;
+    }
+
+    // ==========================================
+    //   SLOT ENCODING
+    // ==========================================
+    private double[][] emptySlots() {
+        return new double[SLOTS][];
+    }
+
+    private double[][] decode(String encoded) {
+        double[][] slots = emptySlots();
+        if (encoded == null || encoded.isEmpty()) return slots;
+        String[] parts = encoded.split(";", -1);
+        for (int i = 0; i < Math.min(parts.length, SLOTS); i++) {
+            if (parts[i].isEmpty()) continue;
+            String[] v = parts[i].split(":");
+            slots[i] = new double[]{Double.parseDouble(v[0]), Double.parseDouble(v[1]), Double.parseDouble(v[2])};
+        }
+        return slots;
+    }
+
+    private String encode(double[][] slots) {
+        StringBuilder sb = new StringBuilder(SLOTS * 24);
+        for (int i = 0; i < SLOTS; i++) {
+            if (i > 0) sb.append(';');
+            if (slots[i] != null) sb.append(slots[i][0]).append(':').append(slots[i][1]).append(':').append(slots[i][2]);
+        }
+        return sb.toString();
+    }
+
+    private static double nz(Double v) {
+        return v != null ? v : 0;
+    }
+
+    private static double round(double v) {
+        return Math.round(v * 100.0) / 100.0;
+    }
+}
@@ -0,0 +1,65 @@
+package com.economic.config;
+
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.time.Duration;
+import java.util.List;
+
+// ============================================================
+//   Hibernate Second-Level Cache (JCache / Ehcache 3, in-process)
+//   Caches User, FinancialProfile and FamilyMember by id plus the
+//   cacheable findByUserId / household queries. Regions are created
+//   here so their size and expiry come from SecondLevelCacheProperties;
+//   hit/miss counts per region are published by HibernateMetrics.
+// ============================================================
+@Configuration
+public class SecondLevelCacheConfig {
+
+    // Must match the region names in the entities' @Cache annotations
+    public static final List<String> ENTITY_REGIONS = List.of("user", "financialProfile", "familyMember");
+
+    public static final String QUERY_REGION = "default-query-results-region";
+    public static final String TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager secondLevelCacheManager(SecondLevelCacheProperties properties) {
+        CacheManager cacheManager = Caching.getCachingProvider("org.ehcache.jsr107.EhcacheCachingProvider")
+            .getCacheManager();
+
+        for (String region : ENTITY_REGIONS) create(cacheManager, region, properties);
+        create(cacheManager, QUERY_REGION, properties);
+
+        // One entry per table; never evicted or expired, or cached query results could outlive a write
+        cacheManager.createCache(TIMESTAMPS_REGION, Eh107Configuration.fromEhcacheCacheConfiguration(
+            CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class,
+                ResourcePoolsBuilder.heap(1000))));
+        cacheManager.enableStatistics(TIMESTAMPS_REGION, true);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager secondLevelCacheManager) {
+        return props -> props.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+    }
+
+    private void create(CacheManager cacheManager, String region, SecondLevelCacheProperties properties) {
+        long ttiSeconds = properties.timeToIdleSecondsFor(region);
+        CacheConfigurationBuilder<Object, Object> config = CacheConfigurationBuilder
+            .newCacheConfigurationBuilder(Object.class, Object.class,
+                ResourcePoolsBuilder.heap(properties.maxEntriesFor(region)))
+            .withExpiry(ttiSeconds > 0
+                ? ExpiryPolicyBuilder.timeToIdleExpiration(Duration.ofSeconds(ttiSeconds))
+                : ExpiryPolicyBuilder.noExpiration());
+        cacheManager.createCache(region, Eh107Configuration.fromEhcacheCacheConfiguration(config));
+        cacheManager.enableStatistics(region, true);
+    }
+}
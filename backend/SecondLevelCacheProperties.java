@@ -0,0 +1,43 @@
+package com.economic.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// ============================================================
+//   Hibernate second-level cache sizing (l2cache.*)
+//   Every region is an on-heap LRU of maxEntries with time-to-idle
+//   expiry; regions[<name>] overrides either value for one region.
+// ============================================================
+@Data
+@Component
+@ConfigurationProperties(prefix = "l2cache")
+public class SecondLevelCacheProperties {
+
+    private long maxEntries = 10_000;
+
+    // Entries not read for this long are dropped; 0 disables expiry
+    private long timeToIdleSeconds = 1800;
+
+    // Region name -> override, e.g. l2cache.regions[familyMember].max-entries=50000
+    private Map<String, Region> regions = new HashMap<>();
+
+    @Data
+    public static class Region {
+        private Long maxEntries;
+        private Long timeToIdleSeconds;
+    }
+
+    public long maxEntriesFor(String region) {
+        Region r = regions.get(region);
+        return r != null && r.getMaxEntries() != null ? r.getMaxEntries() : maxEntries;
+    }
+
+    public long timeToIdleSecondsFor(String region) {
+        Region r = regions.get(region);
+        return r != null && r.getTimeToIdleSeconds() != null ? r.getTimeToIdleSeconds() : timeToIdleSeconds;
+    }
+}
@@ -0,0 +1,101 @@
+package com.economic.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// ============================================================
+//   Single-Flight Request Coalescing
+//   Concurrent calls with the same (operation, userId, inputs) share one
+//   in-flight computation: the first caller runs it, the rest wait for its
+//   result (or its exception). Nothing is kept once the call completes;
+//   caching is EfsCache's job. In-flight calls live in lock-striped maps
+//   picked by userId, so unrelated households never contend on one lock.
+//   Callers put EfsCache.generation(userId) in the inputs: after a profile
+//   write the key changes, so later calls start a fresh computation
+//   instead of joining one that loaded pre-write data.
+// ============================================================
+@Component
+public class SingleFlight {
+
+    @Value("${formula.single-flight.stripes:64}")
+    private int stripeCount;
+
+    private Stripe[] stripes;
+
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    private record Key(String operation, Long userId, List<Object> inputs) {}
+
+    private static final class Stripe {
+        final Map<Key, CompletableFuture<Object>> inFlight = new HashMap<>();
+    }
+
+    @PostConstruct
+    public void init() {
+        // Power of two so the stripe index is a mask
+        int n = Integer.highestOneBit(Math.max(1, stripeCount - 1) << 1);
+        stripes = new Stripe[n];
+        for (int i = 0; i < n; i++) stripes[i] = new Stripe();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String operation, Long userId, List<Object> inputs, Supplier<T> computation) {
+        Key key = new Key(operation, userId, inputs);
+        Stripe stripe = stripes[Long.hashCode(userId * 0x9E3779B97F4A7C15L) & (stripes.length - 1)];
+
+        CompletableFuture<Object> call;
+        boolean leader = false;
+        synchronized (stripe) {
+            call = stripe.inFlight.get(key);
+            if (call == null) {
+                call = new CompletableFuture<>();
+                stripe.inFlight.put(key, call);
+                leader = true;
+            }
+        }
+
+        if (!leader) {
+            coalesced.increment();
+            try {
+                return (T) call.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException re) throw re;
+                if (e.getCause() instanceof Error err) throw err;
+                throw e;
+            }
+        }
+
+        executed.increment();
+        try {
+            T result = computation.get();
+            call.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            synchronized (stripe) {
+                stripe.inFlight.remove(key);
+            }
+        }
+    }
+
+    public Map<String, Object> stats() {
+        long runs = executed.sum();
+        long shared = coalesced.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("stripes", stripes.length);
+        stats.put("executed", runs);
+        stats.put("coalesced", shared);
+        stats.put("coalescedRate", runs + shared > 0 ? Math.round((double) shared / (runs + shared) * 1000.0) / 1000.0 : 0.0);
+        return stats;
+    }
+}
@@ -0,0 +1,21 @@
+package com.economic.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// Interned skill name; its id is what FamilyMember.skillIds stores
+@Entity
+@Table(name = "skills")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Skill {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(unique = true, nullable = false, length = 100)
+    private String name; // normalized: trimmed, lower-case, single spaces
+}
@@ -0,0 +1,217 @@
+package com.economic.service;
+
+import com.economic.entity.*;
+import com.economic.repository.*;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// ============================================================
+//   Skill Catalogue
+//   Interns normalized skill names to small integer ids so each member's
+//   skills are stored as a sorted id list (FamilyMember.skillIds). Counting
+//   skills is then the list length with no string splitting or allocation,
+//   the stored size depends on how many skills a member has rather than on
+//   how large the ids have grown, and the
+//   member_skills reverse index answers "households with skill X".
+//   New names are interned in their own transaction, so the in-memory map
+//   only ever holds ids that are committed, whatever the caller's
+//   transaction does afterwards.
+// ============================================================
+@Service
+public class SkillCatalog {
+
+    private static final Logger log = LoggerFactory.getLogger(SkillCatalog.class);
+
+    @Autowired private SkillRepository skillRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private static final int BACKFILL_CHUNK = 1000;
+
+    // Bounds the skill_ids column (5 varint bytes per id); members with more
+    // distinct skills keep skillIds null and are counted from the text
+    public static final int MAX_SKILLS_PER_MEMBER = 64;
+
+    private final Map<String, Integer> idsByName = new ConcurrentHashMap<>();
+
+    private TransactionTemplate requiresNew;
+
+    @PostConstruct
+    public void init() {
+        requiresNew = new TransactionTemplate(transactionManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        for (Skill s : skillRepository.findAll()) idsByName.put(s.getName(), s.getId());
+        backfill();
+    }
+
+    // "  Tailoring " / "tailoring" / "TAILORING" -> "tailoring"
+    public static String normalize(String raw) {
+        if (raw == null) return "";
+        String s = raw.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        return s.length() > 100 ? s.substring(0, 100) : s;
+    }
+
+    public int intern(String name) {
+        Integer id = idsByName.get(name);
+        if (id != null) return id;
+        synchronized (this) {
+            id = idsByName.get(name);
+            if (id != null) return id;
+            // Outside the caller's transaction: a unique-key race must not mark it rollback-only
+            Integer committed;
+            try {
+                committed = requiresNew.execute(status ->
+                    skillRepository.save(Skill.builder().name(name).build()).getId());
+            } catch (DataIntegrityViolationException e) {
+                // Another instance interned it first; a fresh transaction sees its committed row
+                committed = requiresNew.execute(status -> skillRepository.findByName(name).orElseThrow().getId());
+            }
+            idsByName.put(name, committed);
+            return committed;
+        }
+    }
+
+    public Integer find(String rawName) {
+        return idsByName.get(normalize(rawName));
+    }
+
+    public List<String> names() {
+        List<String> names = new ArrayList<>(idsByName.keySet());
+        Collections.sort(names);
+        return names;
+    }
+
+    // Comma-separated free text -> sorted distinct interned ids, or null (text
+    // fallback) past MAX_SKILLS_PER_MEMBER so an oversized list never fails the write
+    public int[] encode(String skills) {
+        if (skills == null || skills.isBlank()) return new int[0];
+        Set<String> distinct = new LinkedHashSet<>();
+        for (String token : skills.split(",")) {
+            String name = normalize(token);
+            if (!name.isEmpty()) distinct.add(name);
+        }
+        if (distinct.size() > MAX_SKILLS_PER_MEMBER) return null;
+        int[] ids = new int[distinct.size()];
+        int n = 0;
+        for (String name : distinct) ids[n++] = intern(name);
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    // Number of distinct skills in an encoded id list; no allocation
+    public static int count(int[] ids) {
+        return ids != null ? ids.length : 0;
+    }
+
+    // Path for rows without skillIds: distinct normalized names
+    public static int countText(String skills) {
+        if (skills == null || skills.isBlank()) return 0;
+        Set<String> distinct = new HashSet<>();
+        for (String token : skills.split(",")) {
+            String name = normalize(token);
+            if (!name.isEmpty()) distinct.add(name);
+        }
+        return distinct.size();
+    }
+
+    // ==========================================
+    //   REVERSE INDEX (member_skills)
+    // ==========================================
+    public void reindex(Long userId, Collection<FamilyMember> members) {
+        if (members.isEmpty()) return;
+        List<Object[]> deletes = new ArrayList<>(members.size());
+        List<Object[]> inserts = new ArrayList<>();
+        for (FamilyMember m : members) {
+            deletes.add(new Object[]{m.getId()});
+            int[] ids = m.getSkillIds();
+            if (ids == null) continue;
+            for (int id : ids) inserts.add(new Object[]{m.getId(), userId, id});
+        }
+        jdbcTemplate.batchUpdate("DELETE FROM member_skills WHERE member_id = ?", deletes);
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO member_skills (member_id, user_id, skill_id) VALUES (?, ?, ?)", inserts);
+        }
+    }
+
+    // After-commit hook for member saves: the caller's transaction is already committed,
+    // so the index writes get a transaction of their own
+    public void updateIndex(Long userId, Collection<Long> deletedMemberIds, Collection<FamilyMember> changed) {
+        try {
+            requiresNew.executeWithoutResult(status -> {
+                unindex(deletedMemberIds);
+                reindex(userId, changed);
+            });
+        } catch (RuntimeException e) {
+            log.error("member_skills index update failed for user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    public void unindex(Collection<Long> memberIds) {
+        if (memberIds.isEmpty()) return;
+        List<Object[]> deletes = memberIds.stream().map(id -> new Object[]{id}).toList();
+        jdbcTemplate.batchUpdate("DELETE FROM member_skills WHERE member_id = ?", deletes);
+    }
+
+    public long countHouseholdsWithSkill(int skillId) {
+        Long n = jdbcTemplate.queryForObject(
+            "SELECT COUNT(DISTINCT user_id) FROM member_skills WHERE skill_id = ?", Long.class, skillId);
+        return n != null ? n : 0;
+    }
+
+    // ==========================================
+    //   BACKFILL (members saved before skillIds existed)
+    // ==========================================
+    // Keyset over id: rows past MAX_SKILLS_PER_MEMBER stay null and must not be re-read
+    private void backfill() {
+        boolean updatedAny = false;
+        long afterId = 0;
+        SkillIdsConverter converter = new SkillIdsConverter();
+        while (true) {
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT id, user_id, skills FROM family_members " +
+                "WHERE skill_ids IS NULL AND skills IS NOT NULL AND id > ? ORDER BY id LIMIT " + BACKFILL_CHUNK,
+                afterId);
+            if (rows.isEmpty()) break;
+            updatedAny = true;
+
+            List<Object[]> updates = new ArrayList<>(rows.size());
+            Map<Long, List<FamilyMember>> byUser = new HashMap<>();
+            for (Map<String, Object> r : rows) {
+                FamilyMember m = new FamilyMember();
+                m.setId(((Number) r.get("id")).longValue());
+                m.setSkillIds(encode((String) r.get("skills")));
+                afterId = m.getId();
+                if (m.getSkillIds() == null) continue;
+                updates.add(new Object[]{converter.convertToDatabaseColumn(m.getSkillIds()), m.getId()});
+                byUser.computeIfAbsent(((Number) r.get("user_id")).longValue(), k -> new ArrayList<>()).add(m);
+            }
+            byUser.forEach(this::reindex);
+            jdbcTemplate.batchUpdate("UPDATE family_members SET skill_ids = ? WHERE id = ?", updates);
+        }
+        // JDBC writes bypass Hibernate, so drop anything the L2 cache holds for these rows
+        if (updatedAny) {
+            entityManagerFactory.getCache().evict(FamilyMember.class);
+            entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+        }
+    }
+}
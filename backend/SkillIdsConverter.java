@@ -0,0 +1,52 @@
+package com.economic.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+// Sorted int[] skill ids <-> VARBINARY (delta-encoded unsigned varints).
+// Size tracks the number of skills, not the largest id: up to
+// SkillCatalog.MAX_SKILLS_PER_MEMBER ids of at most 5 bytes each.
+@Converter
+public class SkillIdsConverter implements AttributeConverter<int[], byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(int[] ids) {
+        if (ids == null) return null;
+        ByteArrayOutputStream out = new ByteArrayOutputStream(ids.length * 2);
+        int prev = 0;
+        for (int id : ids) {
+            int delta = id - prev;
+            prev = id;
+            while ((delta & ~0x7F) != 0) {
+                out.write((delta & 0x7F) | 0x80);
+                delta >>>= 7;
+            }
+            out.write(delta);
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public int[] convertToEntityAttribute(byte[] bytes) {
+        if (bytes == null) return null;
+        int[] ids = new int[bytes.length];
+        int n = 0;
+        int prev = 0;
+        for (int i = 0; i < bytes.length; ) {
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[i++];
+                delta |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0 && i < bytes.length);
+            prev += delta;
+            ids[n++] = prev;
+        }
+        return Arrays.copyOf(ids, n);
+    }
+}
@@ -0,0 +1,30 @@
+package com.economic.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// ============================================================
+//   Counts SQL statements Hibernate prepares on the current thread.
+//   Registered through hibernate.session_factory.statement_inspector;
+//   RequestMetricsFilter resets and reads it around each request.
+//   (Statements issued directly through JdbcTemplate are not seen here.)
+// ============================================================
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+
+    public static void reset() {
+        COUNT.get()[0] = 0;
+    }
+
+    public static int current() {
+        return COUNT.get()[0];
+    }
+}
@@ -0,0 +1,116 @@
+package com.economic;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// ============================================================
+//   SQL statement budgets for the hot read endpoints
+//   Runs against MySQL (Testcontainers, needs Docker) with the test
+//   profile: db.budget.mode=FAIL turns an overrun into a 500 and
+//   X-DB-Statements / X-DB-Budget carry the counted statements.
+//   Each request starts from a cold EfsCache (the profile is re-saved).
+// ============================================================
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Testcontainers
+class StatementBudgetIntegrationTest {
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0");
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ObjectMapper objectMapper;
+
+    // One household for the whole class; the Spring context is cached across tests
+    private static String token;
+
+    private void registerHousehold() throws Exception {
+        send(post("/api/auth/register"), Map.of(
+            "username", "budget_user", "password", "budget-pass", "email", "budget@example.com",
+            "phone", "9000000000", "role", "FAMILY", "name", "Budget Test", "city", "Pune"));
+        MvcResult login = send(post("/api/auth/login"), Map.of("username", "budget_user", "password", "budget-pass"))
+            .andExpect(status().isOk())
+            .andReturn();
+        JsonNode body = objectMapper.readTree(login.getResponse().getContentAsString());
+        token = body.get("token").asText();
+
+        authorized(post("/api/profile/members"), List.of(
+            Map.of("fullName", "Asha", "age", 38, "isEarner", true, "incomeType", "SALARY",
+                "monthlyIncome", 24000, "incomeStability", "STABLE", "skills", "tailoring, accounting"),
+            Map.of("fullName", "Ravi", "age", 41, "isEarner", true, "incomeType", "DAILY_WAGE",
+                "monthlyIncome", 12000, "incomeStability", "SEASONAL", "skills", "masonry"),
+            Map.of("fullName", "Meera", "age", 9, "isEarner", false)))
+            .andExpect(status().isOk());
+    }
+
+    // Re-saving the profile invalidates EfsCache, so every test measures the cache-miss path
+    @BeforeEach
+    void saveFinancialProfile() throws Exception {
+        if (token == null) registerHousehold();
+        authorized(post("/api/profile/financial"), Map.of(
+            "familyName", "Budget", "city", "Pune", "state", "Maharashtra", "pincode", "411001",
+            "totalSavings", 90000, "totalDebt", 20000, "monthlyExpenses", 30000))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    void economicScoreStaysWithinBudget() throws Exception {
+        assertWithinBudget(authorized(get("/api/economic-score"), null), 1);
+    }
+
+    @Test
+    void shockSimulationStaysWithinBudget() throws Exception {
+        assertWithinBudget(authorized(post("/api/shock-simulate"), Map.of("shockType", "JOB_LOSS")), 1);
+    }
+
+    @Test
+    void profileStaysWithinBudget() throws Exception {
+        assertWithinBudget(authorized(get("/api/profile"), null), 1);
+    }
+
+    private void assertWithinBudget(ResultActions actions, int budget) throws Exception {
+        MvcResult result = actions
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-DB-Budget", String.valueOf(budget)))
+            .andReturn();
+        int statements = Integer.parseInt(result.getResponse().getHeader("X-DB-Statements"));
+        assertEquals(budget, statements, statements + " statements, budget " + budget);
+    }
+
+    private ResultActions authorized(MockHttpServletRequestBuilder request, Object body) throws Exception {
+        return send(request.header("Authorization", "Bearer " + token), body);
+    }
+
+    private ResultActions send(MockHttpServletRequestBuilder request, Object body) throws Exception {
+        if (body != null) {
+            request.contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsBytes(body));
+        }
+        return mockMvc.perform(request);
+    }
+}
@@ -0,0 +1,98 @@
+package com.economic.service;
+
+import com.economic.entity.*;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+// ============================================================
+//   Shock Stress Surface
+//   Survival months over a 2D grid: income drop (0-100%, rows) against
+//   added monthly expense (0-maxAddedExpense, columns), from one household
+//   snapshot. Same arithmetic as simulateShock's income-drop and
+//   school-fee shocks; rows are filled in parallel into primitive arrays.
+// ============================================================
+@Service
+public class StressSurfaceService {
+
+    @Autowired private HouseholdLoader householdLoader;
+
+    public static final int MAX_STEPS = 500;
+
+    // Survival value used for cells that never run out (simulateShock reports these as "Stable")
+    public static final float STABLE = 99f;
+
+    // Below this many months the cell is HIGH risk, as in simulateShock
+    private static final double HIGH_RISK_MONTHS = 2.0;
+
+    @Timed(value = "formula.shock.grid", histogram = true)
+    public Map<String, Object> stressGrid(Long userId, int incomeSteps, int expenseSteps, Double maxAddedExpense) {
+        HouseholdSnapshot household = householdLoader.load(userId);
+        FinancialProfile fp = household.requireProfile();
+
+        double expenses = fp.getMonthlyExpenses() != null ? fp.getMonthlyExpenses() : 0;
+        double savings = fp.getTotalSavings() != null ? fp.getTotalSavings() : 0;
+        // Default range: up to doubling today's expenses
+        double maxAdded = maxAddedExpense != null ? maxAddedExpense : Math.max(expenses, 1000);
+
+        return grid(household.totalIncome(), expenses, savings, incomeSteps, expenseSteps, maxAdded);
+    }
+
+    // Pure in-memory grid over an already-loaded household
+    public Map<String, Object> grid(double income, double expenses, double savings,
+                                    int incomeSteps, int expenseSteps, double maxAddedExpense) {
+        if (incomeSteps < 2 || incomeSteps > MAX_STEPS || expenseSteps < 2 || expenseSteps > MAX_STEPS) {
+            throw new RuntimeException("incomeSteps and expenseSteps must be between 2 and " + MAX_STEPS);
+        }
+        if (maxAddedExpense < 0) throw new RuntimeException("maxAddedExpense must not be negative");
+
+        long start = System.nanoTime();
+        double dropStep = 1.0 / (incomeSteps - 1);
+        double expenseStep = maxAddedExpense / (expenseSteps - 1);
+
+        // survival[i][j]: income drop i * dropStep, added expense j * expenseStep
+        float[][] survival = new float[incomeSteps][];
+        // cliff[j]: smallest income drop that leaves < 2 months at added expense j (-1 if none)
+        float[] cliff = new float[expenseSteps];
+
+        IntStream.range(0, incomeSteps).parallel().forEach(i -> {
+            float[] row = new float[expenseSteps];
+            double newIncome = income * (1 - i * dropStep);
+            for (int j = 0; j < expenseSteps; j++) {
+                double deficit = expenses + j * expenseStep - newIncome;
+                row[j] = deficit > 0
+                    ? (float) Math.min(STABLE, Math.round(savings / deficit * 10.0) / 10.0)
+                    : STABLE;
+            }
+            survival[i] = row;
+        });
+
+        int highRisk = 0;
+        for (int j = 0; j < expenseSteps; j++) {
+            cliff[j] = -1;
+            for (int i = 0; i < incomeSteps; i++) {
+                if (survival[i][j] < HIGH_RISK_MONTHS) {
+                    cliff[j] = (float) (Math.round(i * dropStep * 1000.0) / 10.0);
+                    highRisk += incomeSteps - i; // survival only falls as the drop grows
+                    break;
+                }
+            }
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("incomeDropPercent", Map.of("from", 0, "to", 100, "steps", incomeSteps));
+        result.put("addedExpense", Map.of("from", 0, "to", maxAddedExpense, "steps", expenseSteps));
+        result.put("currentIncome", income);
+        result.put("currentExpenses", expenses);
+        result.put("savings", savings);
+        result.put("stableValue", STABLE);
+        result.put("survivalMonths", survival);
+        result.put("cliffIncomeDropPercent", cliff);
+        result.put("highRiskShare", Math.round((double) highRisk / ((long) incomeSteps * expenseSteps) * 1000.0) / 1000.0);
+        result.put("elapsedMs", Math.round((System.nanoTime() - start) / 10_000.0) / 100.0);
+        return result;
+    }
+}